@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+# Gera a metadata da imagem nativa com o agente de rastreamento do GraalVM: sobe a API na JVM com o
+# agente, exercita os endpoints (chat, ask, health, analytics, prazo estourado) e encerra o processo.
+# O agente grava reflexão, proxies, recursos e serialização usados de fato em src/main/resources/META-INF/native-image,
+# que o native-image lê do classpath. Execuções repetidas mesclam o resultado (config-merge-dir).
+#
+# Uso: scripts/native-agent.sh
+#
+# Pré-requisitos (a partir do diretório chat-rag, com as variáveis do .env exportadas):
+#   - JAVA_HOME apontando para um GraalVM (o agente não existe em JDKs comuns)
+#   - mvn -B -DskipTests -Pnative package   (jar com o processamento AOT do Spring, como no binário nativo)
+#
+# Depois: mvn -B -DskipTests -Pnative native:compile  e  scripts/startup-benchmark.sh native
+#
+# Variáveis opcionais: PORT (8086), TIMEOUT_SECONDS (180).
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT="${PORT:-8086}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-180}"
+OUTPUT_DIR="src/main/resources/META-INF/native-image/com.langchain4j/chat-health"
+BASE_URL="http://localhost:$PORT/api/v1"
+
+JAR="$(ls target/chat-health-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1 || true)"
+[ -n "$JAR" ] || { echo "⚠️ Jar não encontrado; rode 'mvn -B -DskipTests -Pnative package'."; exit 1; }
+java -agentlib:native-image-agent=help >/dev/null 2>&1 \
+    || { echo "⚠️ Agente native-image-agent indisponível; use o java de um GraalVM."; exit 1; }
+
+mkdir -p "$OUTPUT_DIR"
+echo "Subindo a API com o agente (saída em $OUTPUT_DIR) ..."
+# spring.aot.enabled usa o contexto gerado no build, o mesmo caminho de inicialização do binário nativo
+java -Dspring.aot.enabled=true \
+    -agentlib:native-image-agent=config-merge-dir="$OUTPUT_DIR" \
+    -jar "$JAR" --server.port="$PORT" &
+APP_PID=$!
+trap 'kill "$APP_PID" 2>/dev/null || true' EXIT
+
+deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+until [ "$(curl -s -o /dev/null -w '%{http_code}' "$BASE_URL/health" || true)" = "200" ]; do
+    if [ "$(date +%s)" -ge "$deadline" ] || ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "⚠️ A API não ficou pronta em ${TIMEOUT_SECONDS}s."
+        exit 1
+    fi
+    sleep 1
+done
+
+post() {
+    local path="$1" body="$2"
+    shift 2
+    local status
+    status=$(curl -s -o /dev/null -w '%{http_code}' -m 120 -H 'Content-Type: application/json' "$@" \
+        -d "$body" "$BASE_URL$path" || true)
+    echo "POST $path -> $status"
+}
+
+get() {
+    local status
+    status=$(curl -s -o /dev/null -w '%{http_code}' -m 60 "$BASE_URL$1" || true)
+    echo "GET $1 -> $status"
+}
+
+# Perguntas simples e complexas passam pelos dois tiers de modelo, pelo pré-filtro e pelo caminho extrativo
+post /chat '{"question": "Qual o prazo de carência para consultas?", "userId": "native-agent"}'
+post /chat '{"question": "Explique e compare a cobertura de exames entre os planos e justifique as diferenças.", "userId": "native-agent"}'
+post /chat '{"question": "Quais exames estão cobertos pelo plano?", "userId": "native-agent", "context": {"documentType": "faq"}}'
+# Prazo curto força os caminhos degradados (somente trechos / sem trechos)
+post /chat '{"question": "Quais exames estão cobertos pelo plano?", "userId": "native-agent"}' -H 'X-Request-Timeout-Ms: 50'
+post /chat '{"question": "", "userId": "native-agent"}'
+post /ask '{"message": "Qual o telefone da central de atendimento?"}'
+get /health/readiness
+for type in routing tiers deadlines context; do
+    get "/analytics/$type"
+done
+
+# O agente grava a metadata quando a JVM encerra
+kill "$APP_PID"
+wait "$APP_PID" 2>/dev/null || true
+trap - EXIT
+echo "✅ Metadata gravada em $OUTPUT_DIR; revise o diff e faça commit junto com o código que a exigiu."
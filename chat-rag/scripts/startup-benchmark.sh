@@ -0,0 +1,117 @@
+#!/usr/bin/env bash
+# Mede o tempo até a primeira resposta bem-sucedida de POST /api/v1/chat em cada modo de execução.
+#
+# Uso: scripts/startup-benchmark.sh [jvm] [cds] [native]   (padrão: os três)
+#
+# Pré-requisitos (a partir do diretório chat-rag, com as variáveis do .env exportadas):
+#   jvm    -> mvn -B -DskipTests package
+#   cds    -> o mesmo jar; o arquivo CDS é gerado na primeira execução em target/cds/app.jsa
+#   native -> metadata do agente (scripts/native-agent.sh) e mvn -B -DskipTests -Pnative native:compile
+#
+# Variáveis opcionais: PORT (8085), RUNS (3), TIMEOUT_SECONDS (180), QUESTION.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT="${PORT:-8085}"
+RUNS="${RUNS:-3}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-180}"
+QUESTION="${QUESTION:-Quais exames estão cobertos pelo plano?}"
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(jvm cds native)
+
+JAR="$(ls target/chat-health-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1 || true)"
+NATIVE_BIN="target/chat-health"
+CDS_DIR="target/cds"
+
+now_ms() {
+    date +%s%3N
+}
+
+prepare_cds() {
+    if [ -f "$CDS_DIR/app.jsa" ]; then
+        return
+    fi
+    echo "Gerando arquivo CDS em $CDS_DIR/app.jsa ..."
+    rm -rf "$CDS_DIR"
+    # Mesmo layout da imagem Docker: as camadas extraídas mescladas num único diretório
+    java -Djarmode=layertools -jar "$JAR" extract --destination "$CDS_DIR/layers" >/dev/null
+    mkdir -p "$CDS_DIR/app"
+    for layer in dependencies spring-boot-loader snapshot-dependencies application; do
+        cp -r "$CDS_DIR/layers/$layer/." "$CDS_DIR/app/"
+    done
+    (cd "$CDS_DIR/app" && \
+        java -XX:ArchiveClassesAtExit=../app.jsa -Dspring.context.exit=onRefresh \
+            org.springframework.boot.loader.launch.JarLauncher >/dev/null)
+}
+
+start_app() {
+    local mode="$1"
+    case "$mode" in
+        jvm)
+            java -jar "$JAR" --server.port="$PORT" &
+            ;;
+        cds)
+            (cd "$CDS_DIR/app" && exec java -XX:SharedArchiveFile=../app.jsa \
+                org.springframework.boot.loader.launch.JarLauncher --server.port="$PORT") &
+            ;;
+        native)
+            "$NATIVE_BIN" --server.port="$PORT" &
+            ;;
+    esac
+    APP_PID=$!
+}
+
+stop_app() {
+    kill "$APP_PID" 2>/dev/null || true
+    wait "$APP_PID" 2>/dev/null || true
+}
+
+# Repete o POST até receber HTTP 200; retorna o tempo decorrido desde o início do processo
+time_to_first_chat() {
+    local started="$1"
+    local deadline=$((started + TIMEOUT_SECONDS * 1000))
+    local body
+    body=$(printf '{"question": "%s", "userId": "benchmark"}' "$QUESTION")
+    while [ "$(now_ms)" -lt "$deadline" ]; do
+        local status
+        status=$(curl -s -o /dev/null -w '%{http_code}' -m 60 \
+            -H 'Content-Type: application/json' -d "$body" \
+            "http://localhost:$PORT/api/v1/chat" || true)
+        if [ "$status" = "200" ]; then
+            echo $(( $(now_ms) - started ))
+            return 0
+        fi
+        sleep 0.05
+    done
+    echo "timeout"
+    return 1
+}
+
+for mode in "${MODES[@]}"; do
+    case "$mode" in
+        jvm|cds)
+            [ -n "$JAR" ] || { echo "⚠️ Jar não encontrado; rode 'mvn -B -DskipTests package'."; continue; }
+            [ "$mode" = "cds" ] && prepare_cds
+            ;;
+        native)
+            [ -x "$NATIVE_BIN" ] || { echo "⚠️ Binário nativo não encontrado; rode 'scripts/native-agent.sh' e 'mvn -B -DskipTests -Pnative native:compile'."; continue; }
+            ;;
+        *)
+            echo "Modo desconhecido: $mode (use jvm, cds ou native)"
+            continue
+            ;;
+    esac
+
+    results=()
+    for run in $(seq 1 "$RUNS"); do
+        started=$(now_ms)
+        start_app "$mode" >/dev/null 2>&1
+        elapsed=$(time_to_first_chat "$started" || true)
+        stop_app
+        echo "[$mode] execução $run: ${elapsed} ms"
+        results+=("$elapsed")
+    done
+    echo "[$mode] tempo até o primeiro /chat (ms): ${results[*]}"
+done
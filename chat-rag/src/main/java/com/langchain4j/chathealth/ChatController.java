@@ -3,6 +3,7 @@ package com.langchain4j.chathealth;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.context.annotation.Profile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,11 +13,20 @@ import com.langchain4j.chathealth.dto.ChatRequest;
 import com.langchain4j.chathealth.dto.ChatResponse;
 import com.langchain4j.chathealth.dto.ErrorResponse;
 import com.langchain4j.chathealth.service.RagService;
+import com.langchain4j.chathealth.service.rag.ContextAssembler;
+import com.langchain4j.chathealth.service.rag.DeadlineMetrics;
+import com.langchain4j.chathealth.service.rag.DeadlinePolicy;
+import com.langchain4j.chathealth.service.rag.ModelTierMetrics;
+import com.langchain4j.chathealth.service.routing.ModelRoutingMetrics;
+import com.langchain4j.chathealth.service.warmup.WarmupService;
+
+import java.util.Map;
 
 /**
  * Chat Controller com suporte a Virtual Threads (Java 21)
  * Otimizado para alta concorrência com baixo overhead
  */
+@Profile("!indexer")
 @RestController
 @RequestMapping("/api/v1")
 @CrossOrigin(origins = "*", allowedHeaders = "*")
@@ -24,23 +34,51 @@ public class ChatController {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
     private final RagService ragService;
+    private final WarmupService warmupService;
+    private final ModelRoutingMetrics modelRoutingMetrics;
+    private final ModelTierMetrics modelTierMetrics;
+    private final DeadlineMetrics deadlineMetrics;
+    private final ContextAssembler contextAssembler;
 
-    public ChatController(RagService ragService) {
+    public ChatController(RagService ragService, WarmupService warmupService,
+                          ModelRoutingMetrics modelRoutingMetrics, ModelTierMetrics modelTierMetrics,
+                          DeadlineMetrics deadlineMetrics, ContextAssembler contextAssembler) {
         this.ragService = ragService;
+        this.warmupService = warmupService;
+        this.modelRoutingMetrics = modelRoutingMetrics;
+        this.modelTierMetrics = modelTierMetrics;
+        this.deadlineMetrics = deadlineMetrics;
+        this.contextAssembler = contextAssembler;
     }
 
+    /**
+     * Responde 503 enquanto o warm-up não termina, para o probe de readiness não liberar tráfego antes da hora
+     */
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
         logger.info("Health check endpoint called");
+        if (!warmupService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("API Chat Health RAG em aquecimento");
+        }
         return ResponseEntity.ok("API Chat Health RAG ativa");
     }
 
+    /**
+     * Estado do warm-up: duração, latência fria x aquecida por chamada e latência da primeira requisição
+     */
+    @GetMapping("/health/readiness")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        return ResponseEntity.status(warmupService.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(warmupService.report());
+    }
+
     /**
      * Endpoint original - Manter compatibilidade com RAG direto
      * Executado em Virtual Thread para melhor performance
      */
     @PostMapping("/ask")
-    public ResponseEntity<?> ask(@RequestBody AskRequest request) {
+    public ResponseEntity<?> ask(@RequestBody AskRequest request,
+                                 @RequestHeader(value = DeadlinePolicy.HEADER, required = false) Long timeoutMs) {
         logger.info("Ask endpoint called with question: {}", request.getPergunta());
         
         if (request == null || request.getPergunta() == null || request.getPergunta().isBlank()) {
@@ -50,7 +88,9 @@ public class ChatController {
         }
         
         try {
-            String answer = ragService.ask(request.getPergunta());
+            long start = System.currentTimeMillis();
+            String answer = ragService.answer(request.getPergunta(), null, timeoutMs).answer();
+            warmupService.recordRequestLatency(System.currentTimeMillis() - start);
             return ResponseEntity.ok(new AskResponse(request.getPergunta(), answer));
         } catch (Exception e) {
             logger.error("Error processing ask request", e);
@@ -63,9 +103,11 @@ public class ChatController {
      * Novo endpoint - Chamado pelo orquestrador
      * Retorna resposta estruturada com metadados
      * Otimizado com Virtual Threads para alta concorrência
+     * O header X-Request-Timeout-Ms define o prazo da requisição (ver DeadlinePolicy)
      */
     @PostMapping("/chat")
-    public ResponseEntity<?> chat(@RequestBody ChatRequest request) {
+    public ResponseEntity<?> chat(@RequestBody ChatRequest request,
+                                  @RequestHeader(value = DeadlinePolicy.HEADER, required = false) Long timeoutMs) {
         logger.info("Chat endpoint called with question: {} [Thread: {}]", 
             request.getQuestion(), 
             Thread.currentThread().getName());
@@ -78,15 +120,27 @@ public class ChatController {
         
         try {
             // Processar pergunta com RAG
-            String answer = ragService.ask(request.getQuestion());
+            long start = System.currentTimeMillis();
+            RagService.RagAnswer answer = ragService.answer(request.getQuestion(), request.getContext(), timeoutMs);
+            warmupService.recordRequestLatency(System.currentTimeMillis() - start);
+
+            // Tier do modelo que respondeu e o motivo da escolha
+            Map<String, Object> metadata = new java.util.HashMap<>();
+            metadata.put("model_tier", answer.tier() != null ? answer.tier().name() : null);
+            metadata.put("routing_reason", answer.reason());
+            metadata.put("serving_path", answer.path().name());
+            // Prazo estourado: resposta sem geração (apenas trechos) ou sem trechos
+            if (answer.degradation() != null) {
+                metadata.put("degraded", answer.degradation());
+            }
             
-            // Criar resposta estruturada
+            // Criar resposta estruturada; a confiança é o score do melhor trecho recuperado
             ChatResponse response = new ChatResponse(
-                answer,
-                "rag",                    // source
-                "rag_service",            // toolUsed
-                0.9,                      // confidence
-                new java.util.HashMap<>() // metadata
+                answer.answer(),
+                answer.path().source(),   // source
+                answer.path().toolUsed(), // toolUsed
+                answer.confidence(),      // confidence
+                metadata                  // metadata
             );
             
             logger.info("Chat response generated successfully");
@@ -101,6 +155,10 @@ public class ChatController {
 
     /**
      * Endpoint para analytics - Pode ser expandido
+     * - routing: latência, hedge rate e win rate por deployment do Azure OpenAI
+     * - tiers: latência e tokens por tier de modelo, e os motivos da classificação
+     * - deadlines: estouros de prazo por etapa e respostas degradadas
+     * - context: segmentos recuperados x trechos enviados ao modelo e a redução estimada de tokens
      */
     @GetMapping("/analytics/{type}")
     public ResponseEntity<?> getAnalytics(@PathVariable String type) {
@@ -108,7 +166,13 @@ public class ChatController {
         
         try {
             // Implementar lógica de analytics conforme necessário
-            return ResponseEntity.ok(new java.util.HashMap<>());
+            return switch (type) {
+                case "routing" -> ResponseEntity.ok(modelRoutingMetrics.snapshot());
+                case "tiers" -> ResponseEntity.ok(modelTierMetrics.snapshot());
+                case "deadlines" -> ResponseEntity.ok(deadlineMetrics.snapshot());
+                case "context" -> ResponseEntity.ok(contextAssembler.snapshot());
+                default -> ResponseEntity.ok(new java.util.HashMap<>());
+            };
         } catch (Exception e) {
             logger.error("Error getting analytics", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,51 @@
+package com.langchain4j.chathealth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.indexer.IndexerMetrics;
+
+import java.util.Map;
+
+/**
+ * Endpoints de saúde e métricas do indexador em modo daemon (perfil 'indexer-daemon').
+ */
+@Profile("indexer-daemon")
+@RestController
+@RequestMapping("/api/v1/indexer")
+public class IndexerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerController.class);
+    private final IndexerMetrics metrics;
+    private final long maxLagMs;
+
+    public IndexerController(IndexerMetrics metrics,
+                             @Value("${indexer.daemon.max-lag-ms:300000}") long maxLagMs) {
+        this.metrics = metrics;
+        this.maxLagMs = maxLagMs;
+    }
+
+    /**
+     * Saudável enquanto o daemon estiver rodando e o último ciclo bem-sucedido estiver dentro do lag máximo
+     */
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, Object>> health() {
+        long lagMs = metrics.lagMs();
+        boolean healthy = metrics.isRunning() && lagMs >= 0 && lagMs <= maxLagMs;
+        if (!healthy) {
+            logger.warn("Indexer health check falhou (running: {}, lagMs: {})", metrics.isRunning(), lagMs);
+        }
+        return ResponseEntity.status(healthy ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", healthy ? "UP" : "DOWN", "lagMs", lagMs));
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> metrics() {
+        return ResponseEntity.ok(metrics.snapshot());
+    }
+}
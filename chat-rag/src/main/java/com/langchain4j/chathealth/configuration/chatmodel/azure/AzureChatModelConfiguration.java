@@ -5,31 +5,82 @@ import dev.langchain4j.model.openaiofficial.OpenAiOfficialChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.langchain4j.chathealth.configuration.routing.ModelRoutingProperties;
+import com.langchain4j.chathealth.service.routing.DeploymentRouter;
+import com.langchain4j.chathealth.service.routing.DeploymentStats;
+import com.langchain4j.chathealth.service.routing.ModelRoutingMetrics;
+import com.langchain4j.chathealth.service.routing.RoutingChatModel;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import static com.openai.models.ChatModel.GPT_4O;
 import static dev.langchain4j.model.chat.Capability.RESPONSE_FORMAT_JSON_SCHEMA;
 
+// Modelos de chat só existem no servidor da API; o indexador (inclusive o daemon) não gera respostas
 @Configuration
+@Profile("!indexer")
 //@Profile("azure")
 public class AzureChatModelConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(AzureChatModelConfiguration.class);
+
     @Value("${AZURE_OPENAI_ENDPOINT}")
     private String azureOpenAiEndpoint;
 
     @Value("${AZURE_OPENAI_KEY}")
     private String azureOpenAiKey;
 
+    /**
+     * Distribui as chamadas entre os deployments de 'azure.openai.routing.chat-deployments' (com hedging);
+     * sem deployments configurados, usa um único deployment GPT-4o com AZURE_OPENAI_ENDPOINT/AZURE_OPENAI_KEY.
+     */
+    @Bean
+    @Primary
+    ChatModel azureOpenAIChatModel(ModelRoutingProperties routing, ModelRoutingMetrics metrics) {
+        return routingChatModel("chat", routing.chatDeployments(), GPT_4O.asString(), routing, metrics);
+    }
+
+    /**
+     * Tier rápido para perguntas simples: 'azure.openai.routing.fast-chat-deployments', ou o modelo
+     * 'azure.openai.routing.fast-chat-model' no deployment padrão.
+     */
     @Bean
-    ChatModel azureOpenAIChatModel() {
-        return OpenAiOfficialChatModel.builder()
-                .baseUrl(azureOpenAiEndpoint)
-                .apiKey(azureOpenAiKey)
-                .modelName(GPT_4O)
-                .supportedCapabilities(Set.of(RESPONSE_FORMAT_JSON_SCHEMA))
-                .strictJsonSchema(true)
-                .strictTools(true)
-                .build();
+    ChatModel fastChatModel(ModelRoutingProperties routing, ModelRoutingMetrics metrics) {
+        return routingChatModel("chat-fast", routing.fastChatDeployments(), routing.fastChatModel(), routing, metrics);
+    }
+
+    private ChatModel routingChatModel(String kind, List<ModelRoutingProperties.Deployment> configured,
+                                       String defaultModel, ModelRoutingProperties routing, ModelRoutingMetrics metrics) {
+        if (configured.isEmpty()) {
+            configured = List.of(new ModelRoutingProperties.Deployment("default", azureOpenAiEndpoint, azureOpenAiKey,
+                    defaultModel, 1.0, 0));
+        }
+
+        List<DeploymentRouter.Deployment<ChatModel>> deployments = new ArrayList<>();
+        for (ModelRoutingProperties.Deployment deployment : configured) {
+            ChatModel model = OpenAiOfficialChatModel.builder()
+                    .baseUrl(deployment.endpoint())
+                    .apiKey(deployment.apiKey())
+                    .modelName(deployment.model())
+                    .supportedCapabilities(Set.of(RESPONSE_FORMAT_JSON_SCHEMA))
+                    .strictJsonSchema(true)
+                    .strictTools(true)
+                    .build();
+            deployments.add(new DeploymentRouter.Deployment<>(deployment.name(), model, deployment.weight(),
+                    new DeploymentStats(deployment.requestsPerMinute(), routing.latencyWindow())));
+        }
+        logger.info("✅ Chat model '{}' com {} deployment(s): {} (hedging: {})", kind, deployments.size(),
+                deployments.stream().map(DeploymentRouter.Deployment::name).toList(), routing.hedgeEnabled());
+
+        DeploymentRouter<ChatModel> router = new DeploymentRouter<>(kind, deployments, routing.hedgePolicy());
+        metrics.register(kind, router);
+        return new RoutingChatModel(router);
     }
 }
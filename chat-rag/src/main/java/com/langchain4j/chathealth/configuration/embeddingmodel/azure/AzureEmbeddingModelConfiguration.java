@@ -3,13 +3,24 @@ package com.langchain4j.chathealth.configuration.embeddingmodel.azure;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openaiofficial.OpenAiOfficialEmbeddingModel;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 //import org.springframework.context.annotation.Profile;
 
+import com.langchain4j.chathealth.configuration.routing.ModelRoutingProperties;
+import com.langchain4j.chathealth.service.routing.DeploymentRouter;
+import com.langchain4j.chathealth.service.routing.DeploymentStats;
+import com.langchain4j.chathealth.service.routing.ModelRoutingMetrics;
+import com.langchain4j.chathealth.service.routing.RoutingEmbeddingModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.openai.models.embeddings.EmbeddingModel.TEXT_EMBEDDING_3_SMALL;
 
 @Configuration
+@EnableConfigurationProperties(ModelRoutingProperties.class)
 //@Profile("azure")
 public class AzureEmbeddingModelConfiguration {
 
@@ -19,13 +30,31 @@ public class AzureEmbeddingModelConfiguration {
     @Value("${AZURE_OPENAI_KEY}")
     private String azureOpenAiKey;
 
+    /**
+     * Distribui as chamadas entre os deployments de 'azure.openai.routing.embedding-deployments';
+     * sem deployments configurados, usa um único deployment com AZURE_OPENAI_ENDPOINT/AZURE_OPENAI_KEY.
+     */
     @Bean
-    EmbeddingModel azureOpenAiEmbeddingModel() {
+    EmbeddingModel azureOpenAiEmbeddingModel(ModelRoutingProperties routing, ModelRoutingMetrics metrics) {
         System.out.println(">>> CRIANDO O BEAN: EmbeddingModel <<<");
-        return OpenAiOfficialEmbeddingModel.builder()
-                .baseUrl(azureOpenAiEndpoint)
-                .apiKey(azureOpenAiKey)
-                .modelName(TEXT_EMBEDDING_3_SMALL)
-                .build();
+        List<ModelRoutingProperties.Deployment> configured = routing.embeddingDeployments().isEmpty()
+                ? List.of(new ModelRoutingProperties.Deployment("default", azureOpenAiEndpoint, azureOpenAiKey,
+                        TEXT_EMBEDDING_3_SMALL.asString(), 1.0, 0))
+                : routing.embeddingDeployments();
+
+        List<DeploymentRouter.Deployment<EmbeddingModel>> deployments = new ArrayList<>();
+        for (ModelRoutingProperties.Deployment deployment : configured) {
+            EmbeddingModel model = OpenAiOfficialEmbeddingModel.builder()
+                    .baseUrl(deployment.endpoint())
+                    .apiKey(deployment.apiKey())
+                    .modelName(deployment.model())
+                    .build();
+            deployments.add(new DeploymentRouter.Deployment<>(deployment.name(), model, deployment.weight(),
+                    new DeploymentStats(deployment.requestsPerMinute(), routing.latencyWindow())));
+        }
+
+        DeploymentRouter<EmbeddingModel> router = new DeploymentRouter<>("embedding", deployments, routing.hedgePolicy());
+        metrics.register("embedding", router);
+        return new RoutingEmbeddingModel(router);
     }
 }
@@ -2,17 +2,20 @@ package com.langchain4j.chathealth.configuration.rag;
 
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.rag.content.retriever.ContentRetriever;
-import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
 import dev.langchain4j.service.AiServices;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.data.segment.TextSegment;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 
 import com.langchain4j.chathealth.service.rag.RagAssistant;
+import com.langchain4j.chathealth.service.search.ScopedContentRetriever;
 
+@Profile("!indexer")
 @Configuration
 public class RagConfiguration {
 
@@ -22,23 +25,27 @@ public class RagConfiguration {
     @Value("${rag.retriever.min-score}")
     private double minScore;
 
-    // Cria o bean que sabe como buscar conteúdo relevante
+    // Cria o bean que sabe como buscar conteúdo relevante (com pré-filtro opcional por atributos)
     @Bean
-    public ContentRetriever contentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel) {
-        return EmbeddingStoreContentRetriever.builder()
-                .embeddingStore(embeddingStore)
-                .embeddingModel(embeddingModel)
-                .maxResults(maxResults)
-                .minScore(minScore)
-                .build();
+    public ScopedContentRetriever contentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel) {
+        return new ScopedContentRetriever(embeddingStore, embeddingModel, maxResults, minScore);
     }
 
-    // Cria a implementação da sua interface RagAssistant
+    // Cria a implementação da sua interface RagAssistant (tier padrão, GPT-4o)
+    // A recuperação é feita antes, em RagService, para que o resultado também escolha o tier
     @Bean
-    public RagAssistant ragAssistant(ChatModel chatModel, ContentRetriever contentRetriever) {
+    @Primary
+    public RagAssistant ragAssistant(ChatModel chatModel) {
         return AiServices.builder(RagAssistant.class)
                 .chatModel(chatModel)
-                .contentRetriever(contentRetriever)
+                .build();
+    }
+
+    // Mesmo assistente sobre o modelo rápido, para perguntas simples
+    @Bean
+    public RagAssistant fastRagAssistant(@Qualifier("fastChatModel") ChatModel fastChatModel) {
+        return AiServices.builder(RagAssistant.class)
+                .chatModel(fastChatModel)
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.langchain4j.chathealth.configuration.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.langchain4j.chathealth.service.routing.DeploymentRouter;
+
+import java.util.List;
+
+/**
+ * Deployments do Azure OpenAI entre os quais as chamadas de chat e embedding são distribuídas,
+ * e os parâmetros do hedging (ver {@link DeploymentRouter}).
+ * Sem deployments configurados, usa um único deployment com AZURE_OPENAI_ENDPOINT/AZURE_OPENAI_KEY.
+ */
+@ConfigurationProperties(prefix = "azure.openai.routing")
+public record ModelRoutingProperties(
+        @DefaultValue("true") boolean hedgeEnabled,
+        // Percentil da latência do deployment primário após o qual a requisição de hedge é enviada
+        @DefaultValue("0.95") double hedgePercentile,
+        @DefaultValue("250") long hedgeMinDelayMs,
+        // Atraso usado enquanto o deployment ainda não tem amostras suficientes
+        @DefaultValue("3000") long hedgeInitialDelayMs,
+        @DefaultValue("20") int hedgeMinSamples,
+        @DefaultValue("200") int latencyWindow,
+        // Tempo fora da rotação após um 429 (throttling)
+        @DefaultValue("30000") long throttleCooldownMs,
+        @DefaultValue List<Deployment> chatDeployments,
+        // Tier rápido/barato para perguntas simples (ver QuestionComplexityClassifier)
+        @DefaultValue List<Deployment> fastChatDeployments,
+        // Modelo do tier rápido quando não há deployments próprios (mesmo endpoint do deployment padrão)
+        @DefaultValue("gpt-4o-mini") String fastChatModel,
+        @DefaultValue List<Deployment> embeddingDeployments) {
+
+    public DeploymentRouter.HedgePolicy hedgePolicy() {
+        return new DeploymentRouter.HedgePolicy(hedgeEnabled, hedgePercentile, hedgeMinDelayMs,
+                hedgeInitialDelayMs, hedgeMinSamples, throttleCooldownMs);
+    }
+
+    /**
+     * Um deployment: o peso multiplica a preferência pela latência observada e pela cota restante
+     * (requisições por minuto; 0 = sem limite conhecido).
+     */
+    public record Deployment(String name,
+                             String endpoint,
+                             String apiKey,
+                             String model,
+                             @DefaultValue("1.0") double weight,
+                             @DefaultValue("0") int requestsPerMinute) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.langchain4j.chathealth.configuration.source;
+
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.BlobServiceAsyncClient;
+import com.azure.storage.blob.BlobServiceClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.source.BlobDocumentSource;
+import com.langchain4j.chathealth.service.source.DocumentSource;
+import com.langchain4j.chathealth.service.source.LocalDocumentSource;
+
+/**
+ * Seleciona a origem dos documentos do indexador via 'indexer.source.type' (blob | local)
+ */
+@Profile("indexer")
+@Configuration
+public class DocumentSourceConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSourceConfiguration.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "indexer.source.type", havingValue = "blob", matchIfMissing = true)
+    public BlobContainerAsyncClient blobContainerAsyncClient(BlobServiceAsyncClient blobServiceAsyncClient,
+                                                             @Value("${azure.storage.container-name:}") String containerName) {
+        return blobServiceAsyncClient.getBlobContainerAsyncClient(containerName);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "indexer.source.type", havingValue = "blob", matchIfMissing = true)
+    public DocumentSource blobDocumentSource(BlobServiceClient blobServiceClient,
+                                             BlobContainerAsyncClient blobContainerAsyncClient,
+                                             @Value("${azure.storage.container-name:}") String containerName,
+                                             @Value("${indexer.source.blob.page-prefetch:2}") int pagePrefetch,
+                                             @Value("${indexer.source.blob.hash-concurrency:8}") int hashConcurrency) {
+        logger.info("✅ Origem de documentos: Azure Blob Storage (container: {})", containerName);
+        return new BlobDocumentSource(blobServiceClient, blobContainerAsyncClient, containerName, pagePrefetch, hashConcurrency);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "indexer.source.type", havingValue = "local")
+    public DocumentSource localDocumentSource(@Value("${indexer.source.local.path:}") String path,
+                                              @Value("${indexer.source.local.hash-threads:0}") int hashThreads,
+                                              @Value("${indexer.source.local.map-chunk-bytes:67108864}") long mapChunkBytes,
+                                              @Value("${indexer.source.local.watch-debounce-ms:500}") long watchDebounceMs) {
+        logger.info("✅ Origem de documentos: diretório local ({})", path);
+        return new LocalDocumentSource(path, hashThreads, mapChunkBytes, watchDebounceMs);
+    }
+}
@@ -7,15 +7,24 @@ import dev.langchain4j.store.embedding.azure.search.AzureAiSearchEmbeddingStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.azure.search.documents.SearchClient;
 import com.azure.search.documents.SearchClientBuilder;
 
 import com.azure.core.credential.AzureKeyCredential;
+import com.azure.search.documents.indexes.SearchIndexAsyncClient;
 import com.azure.search.documents.indexes.SearchIndexClient;
 import com.azure.search.documents.indexes.SearchIndexClientBuilder;
 
+import com.langchain4j.chathealth.service.search.AliasedEmbeddingStore;
+import com.langchain4j.chathealth.service.search.IndexAliasService;
+import com.langchain4j.chathealth.service.search.ShardRouter;
+import com.langchain4j.chathealth.service.search.ShardedEmbeddingStore;
+
+import java.util.function.Function;
+
 /**
  * Configuração do Azure AI Search para Embedding Store
  * Utiliza variáveis de ambiente em vez de arquivo .env
@@ -35,8 +44,19 @@ public class AzureEmbeddingStoreConfiguration {
     @Value("${azure.search.index-name:#{null}}")
     private String indexName;
 
+    @Value("${azure.search.embedding-dimension:1536}")
+    private int embeddingDimension;
+
+    @Value("${azure.search.shards.timeout-ms:2000}")
+    private long shardTimeoutMs;
+
+    /**
+     * O índice consultado é resolvido pelo alias a cada chamada (ver {@link IndexAliasService}),
+     * permitindo trocar para um índice reconstruído sem reiniciar a API.
+     * Com mais de um shard, cada shard tem seu alias e as buscas são distribuídas entre eles (ver {@link ShardedEmbeddingStore}).
+     */
     @Bean
-    EmbeddingStore<TextSegment> embeddingStore() {
+    EmbeddingStore<TextSegment> embeddingStore(IndexAliasService indexAliasService, ShardRouter shardRouter) {
         // Validar se as configurações estão presentes
         if (azureSearchEndpoint == null || azureSearchEndpoint.isEmpty() ||
             azureSearchKey == null || azureSearchKey.isEmpty() ||
@@ -46,16 +66,28 @@ public class AzureEmbeddingStoreConfiguration {
             return null;
         }
         
-        logger.info("✅ Inicializando Azure AI Search Embedding Store");
-        return AzureAiSearchEmbeddingStore.builder()
-                .endpoint(azureSearchEndpoint)
-                .apiKey(azureSearchKey)
-                .indexName(indexName)
-                .createOrUpdateIndex(false)
-                .dimensions(1536)
-                .build();
+        Function<String, EmbeddingStore<TextSegment>> storeFactory = physicalIndexName -> {
+            logger.info("✅ Conectando Embedding Store ao índice físico '{}'", physicalIndexName);
+            return AzureAiSearchEmbeddingStore.builder()
+                    .endpoint(azureSearchEndpoint)
+                    .apiKey(azureSearchKey)
+                    .indexName(physicalIndexName)
+                    .createOrUpdateIndex(false)
+                    .dimensions(embeddingDimension)
+                    .build();
+        };
+
+        if (!shardRouter.isSharded()) {
+            logger.info("✅ Inicializando Azure AI Search Embedding Store (alias: {})", indexName);
+            return new AliasedEmbeddingStore(indexName, indexAliasService, storeFactory);
+        }
+
+        logger.info("✅ Inicializando Azure AI Search Embedding Store com {} shards: {}", shardRouter.shards().size(), shardRouter.shards());
+        return new ShardedEmbeddingStore(shardRouter, indexAliasService, storeFactory, shardTimeoutMs);
     }
 
+    // Clientes do Azure são criados apenas no primeiro uso, reduzindo o tempo de startup
+    @Lazy
     @Bean
     public SearchIndexClient searchIndexClient() {
         if (azureSearchEndpoint == null || azureSearchEndpoint.isEmpty() ||
@@ -71,6 +103,7 @@ public class AzureEmbeddingStoreConfiguration {
                 .buildClient();
     }
 
+    @Lazy
     @Bean
     public SearchClient searchClient() {
         if (azureSearchEndpoint == null || azureSearchEndpoint.isEmpty() ||
@@ -87,4 +120,26 @@ public class AzureEmbeddingStoreConfiguration {
                 .indexName(indexName)
                 .buildClient();
     }
+
+    /**
+     * Variante assíncrona (Reactor): a paginação com byPage() busca as próximas páginas enquanto a atual
+     * é processada, e várias leituras podem correr ao mesmo tempo sem uma thread por chamada.
+     * O cliente de busca é obtido por índice físico, resolvido pelo alias a cada uso
+     * (ver IndexerService.ingestedFileHashes).
+     */
+    @Lazy
+    @Bean
+    public SearchIndexAsyncClient searchIndexAsyncClient() {
+        if (azureSearchEndpoint == null || azureSearchEndpoint.isEmpty() ||
+            azureSearchKey == null || azureSearchKey.isEmpty()) {
+
+            logger.warn("⚠️ SearchIndexAsyncClient não será inicializado - credenciais não configuradas");
+            return null;
+        }
+
+        return new SearchIndexClientBuilder()
+                .endpoint(azureSearchEndpoint)
+                .credential(new AzureKeyCredential(azureSearchKey))
+                .buildAsyncClient();
+    }
 }
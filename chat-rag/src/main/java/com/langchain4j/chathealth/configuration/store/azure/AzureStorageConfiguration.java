@@ -1,10 +1,12 @@
 package com.langchain4j.chathealth.configuration.store.azure;
 
+import com.azure.storage.blob.BlobServiceAsyncClient;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,8 +22,21 @@ public class AzureStorageConfiguration {
     @Value("${azure.storage.connection-string:#{null}}")
     private String connectionString;
 
+    // Criado apenas no primeiro uso (somente o indexador acessa o Blob Storage)
+    @Lazy
     @Bean
     public BlobServiceClient blobServiceClient() {
+        return blobServiceClientBuilder().buildClient();
+    }
+
+    // Variante assíncrona: listagem paginada com prefetch e downloads concorrentes sem uma thread por blob
+    @Lazy
+    @Bean
+    public BlobServiceAsyncClient blobServiceAsyncClient() {
+        return blobServiceClientBuilder().buildAsyncClient();
+    }
+
+    private BlobServiceClientBuilder blobServiceClientBuilder() {
         // Tentar obter a connection string de variáveis de ambiente
         String connStr = connectionString;
         
@@ -33,13 +48,11 @@ public class AzureStorageConfiguration {
         if (connStr == null || connStr.isEmpty()) {
             logger.warn("⚠️ AZURE_STORAGE_CONNECTION_STRING não configurada. Usando cliente sem autenticação.");
             // Retornar um cliente vazio para não quebrar o startup
-            return new BlobServiceClientBuilder()
-                    .buildClient();
+            return new BlobServiceClientBuilder();
         }
         
         logger.info("✅ Configurando Azure Blob Storage com connection string");
         return new BlobServiceClientBuilder()
-                .connectionString(connStr)
-                .buildClient();
+                .connectionString(connStr);
     }
 }
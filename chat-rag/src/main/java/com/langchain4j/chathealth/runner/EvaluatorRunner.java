@@ -0,0 +1,48 @@
+package com.langchain4j.chathealth.runner;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.evaluation.EvaluationReport;
+import com.langchain4j.chathealth.service.evaluation.RetrievalEvaluator;
+
+/**
+ * Tarefa de linha de comando do perfil 'evaluator': executa a varredura de parâmetros da recuperação,
+ * grava o relatório e encerra a aplicação. O código de saída é 0 quando alguma configuração atinge
+ * 'rag.evaluation.min-recall', 2 quando nenhuma atinge e 1 em caso de falha.
+ */
+@Profile("evaluator")
+@Component
+public class EvaluatorRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvaluatorRunner.class);
+
+    private final RetrievalEvaluator retrievalEvaluator;
+    private final ConfigurableApplicationContext context;
+
+    public EvaluatorRunner(RetrievalEvaluator retrievalEvaluator, ConfigurableApplicationContext context) {
+        this.retrievalEvaluator = retrievalEvaluator;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        logger.info("🚀 Perfil 'evaluator' ativo: iniciando avaliação da recuperação...");
+
+        try {
+            EvaluationReport report = retrievalEvaluator.evaluate();
+            int exitCode = report.recommended() != null ? 0 : 2;
+            logger.info("✅ Avaliação concluída: {} configurações avaliadas.", report.rows().size());
+            System.exit(SpringApplication.exit(context, () -> exitCode));
+
+        } catch (Exception e) {
+            logger.error("Falha na avaliação da recuperação: {}", e.getMessage(), e);
+            System.exit(SpringApplication.exit(context, () -> 1));
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.langchain4j.chathealth.runner;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import com.langchain4j.chathealth.service.IndexRebuildService;
 import com.langchain4j.chathealth.service.IndexerService;
+import com.langchain4j.chathealth.service.indexer.IndexerDaemon;
 
 /**
  * Esta classe é uma tarefa de linha de comando que é executada apenas quando o perfil 'indexer' está ativo.
  * A sua única responsabilidade é acionar o serviço de ingestão de documentos e encerrar a aplicação de forma controlada.
+ * Com 'indexer.daemon.enabled=true' (perfil 'indexer-daemon'), inicia o indexador contínuo e não encerra a aplicação.
+ * Com 'indexer.rebuild.enabled=true' (perfil 'indexer-rebuild'), reconstrói o índice em blue/green e troca o alias.
  */
 @Profile("indexer") // Garante que este bean só será ativado quando o perfil "indexer" for usado.
 @Component      // ESSENCIAL: Transforma esta classe em um bean gerenciado pelo Spring, permitindo que ela seja encontrada e executada.
@@ -18,19 +23,35 @@ public class IndexerRunner implements CommandLineRunner {
 
     private final IndexerService indexerService;
     private final ConfigurableApplicationContext context; // Necessário para encerrar a aplicação de forma limpa.
+    private final IndexerDaemon indexerDaemon;
+    private final boolean daemonEnabled;
+    private final IndexRebuildService indexRebuildService;
+    private final boolean rebuildEnabled;
 
     /**
      * O Spring injeta automaticamente as dependências necessárias (outros beans)
      * através do construtor.
      * @param indexerService O serviço que contém a lógica de ingestão.
      * @param context O contexto da aplicação Spring.
+     * @param indexerDaemon O indexador contínuo, usado quando o modo daemon está habilitado.
+     * @param daemonEnabled Indica se o indexador deve rodar continuamente.
+     * @param indexRebuildService O serviço de reconstrução blue/green do índice.
+     * @param rebuildEnabled Indica se a execução deve reconstruir o índice em vez de sincronizá-lo.
      */
-    public IndexerRunner(IndexerService indexerService, ConfigurableApplicationContext context) {
+    public IndexerRunner(IndexerService indexerService, ConfigurableApplicationContext context,
+                         IndexerDaemon indexerDaemon,
+                         @Value("${indexer.daemon.enabled:false}") boolean daemonEnabled,
+                         IndexRebuildService indexRebuildService,
+                         @Value("${indexer.rebuild.enabled:false}") boolean rebuildEnabled) {
         // --- LOG DE DEBUG ---
         System.out.println(">>> CONSTRUINDO O BEAN: IndexerRunner (serviço de indexação não é nulo? " + (indexerService != null) + ") <<<");
         // --- FIM DO LOG ---
         this.indexerService = indexerService;
         this.context = context;
+        this.indexerDaemon = indexerDaemon;
+        this.daemonEnabled = daemonEnabled;
+        this.indexRebuildService = indexRebuildService;
+        this.rebuildEnabled = rebuildEnabled;
     }
 
     /**
@@ -40,11 +61,22 @@ public class IndexerRunner implements CommandLineRunner {
      */
     @Override
     public void run(String... args) {
+        if (daemonEnabled) {
+            System.out.println("PERFIL 'indexer' ATIVO EM MODO DAEMON: sincronização contínua iniciada.");
+            // O agendador mantém a aplicação ativa; o encerramento ocorre via SIGTERM (shutdown do contexto).
+            indexerDaemon.start();
+            return;
+        }
+
         System.out.println("PERFIL 'indexer' ATIVO: Iniciando processo de ingestão...");
 
         try {
             // Delega a execução da lógica de negócio para o serviço apropriado.
-            indexerService.process();
+            if (rebuildEnabled) {
+                indexRebuildService.rebuild();
+            } else {
+                indexerService.process();
+            }
 
             System.out.println("INGESTÃO CONCLUÍDA COM SUCESSO!");
             
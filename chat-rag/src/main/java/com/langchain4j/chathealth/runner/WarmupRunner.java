@@ -0,0 +1,34 @@
+package com.langchain4j.chathealth.runner;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.langchain4j.chathealth.service.warmup.WarmupService;
+
+/**
+ * Executa o warm-up logo após a inicialização do servidor web.
+ * O estado de prontidão do Spring permanece em REFUSING_TRAFFIC até o fim do aquecimento,
+ * e o Spring Boot só publica ACCEPTING_TRAFFIC depois que todos os runners terminam.
+ */
+@Profile("!indexer & !evaluator")
+@Component
+public class WarmupRunner implements CommandLineRunner {
+
+    private final WarmupService warmupService;
+    private final ApplicationContext context;
+
+    public WarmupRunner(WarmupService warmupService, ApplicationContext context) {
+        this.warmupService = warmupService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+        warmupService.warmUp();
+    }
+}
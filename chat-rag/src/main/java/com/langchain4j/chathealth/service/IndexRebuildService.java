@@ -0,0 +1,130 @@
+package com.langchain4j.chathealth.service;
+
+import com.azure.search.documents.SearchClient;
+import com.azure.search.documents.indexes.SearchIndexClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.search.IndexAliasService;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconstrução blue/green do índice: cria um índice versionado novo, preenche-o com ingestão
+ * paralela (embeddings reaproveitados pelo cache por conteúdo quando o modelo não muda), aguarda
+ * os documentos ficarem visíveis e só então troca o alias. O índice anterior é removido após
+ * um período de carência, para que réplicas da API com o alias em cache terminem de migrar.
+ * Com o índice dividido em shards, cada shard ganha seu índice versionado e os aliases só são trocados
+ * depois que todos estiverem prontos, todos numa única escrita (ver {@link IndexAliasService#switchAll}).
+ */
+@Profile("indexer")
+@Service
+public class IndexRebuildService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexRebuildService.class);
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final IndexerService indexerService;
+    private final IndexAliasService indexAliasService;
+    private final int parallelism;
+    private final long gracePeriodMs;
+    private final boolean dropPrevious;
+
+    public IndexRebuildService(IndexerService indexerService,
+                               IndexAliasService indexAliasService,
+                               @Value("${indexer.rebuild.parallelism:8}") int parallelism,
+                               @Value("${indexer.rebuild.grace-period-ms:120000}") long gracePeriodMs,
+                               @Value("${indexer.rebuild.drop-previous:true}") boolean dropPrevious) {
+        this.indexerService = indexerService;
+        this.indexAliasService = indexAliasService;
+        this.parallelism = parallelism;
+        this.gracePeriodMs = gracePeriodMs;
+        this.dropPrevious = dropPrevious;
+    }
+
+    public void rebuild() throws InterruptedException, IOException {
+        if (!indexerService.isConfigured()) {
+            logger.warn("⚠️ Configurações de índice ou origem de documentos não definidas. Pulando reconstrução.");
+            return;
+        }
+
+        List<String> aliases = indexerService.shardRouter().shards();
+        String version = "-v" + LocalDateTime.now().format(VERSION_FORMAT);
+        SearchIndexClient searchIndexClient = indexerService.searchIndexClient();
+        Map<String, String> current = indexAliasService.resolveAll();
+        Map<String, String> previousIndexes = new LinkedHashMap<>();
+        Map<String, String> newIndexes = new LinkedHashMap<>();
+        for (String alias : aliases) {
+            previousIndexes.put(alias, current.getOrDefault(alias, alias));
+            newIndexes.put(alias, alias + version);
+            logger.info("Iniciando reconstrução blue/green: alias '{}' (atual: '{}') -> novo índice '{}'",
+                    alias, previousIndexes.get(alias), newIndexes.get(alias));
+        }
+
+        // Todos os shards são preenchidos antes da troca; a API resolve os shards juntos e nunca combina versões diferentes
+        List<String> created = new ArrayList<>();
+        try {
+            List<IndexerService.FileInfo> files = indexerService.snapshotSource();
+            Map<String, List<IndexerService.FileInfo>> filesByShard = new LinkedHashMap<>();
+            aliases.forEach(alias -> filesByShard.put(alias, new ArrayList<>()));
+            files.forEach(file -> filesByShard.get(indexerService.shardRouter().shardForFile(file.filename())).add(file));
+
+            indexerService.resetEmbeddingStats();
+            for (String alias : aliases) {
+                String newIndex = newIndexes.get(alias);
+                indexerService.createIndex(newIndex);
+                created.add(newIndex);
+                List<IndexerService.FileInfo> shardFiles = filesByShard.get(alias);
+                logger.info("Preenchendo '{}' com {} arquivos (paralelismo: {})", newIndex, shardFiles.size(), parallelism);
+
+                SearchClient target = searchIndexClient.getSearchClient(newIndex);
+                // Sem checkpoints: o novo índice pode usar outro chunking, e uma falha aborta a troca do alias
+                IndexerService.IngestResult result = indexerService.ingestNewDocuments(target, shardFiles, false, parallelism);
+                if (!result.failedFiles().isEmpty()) {
+                    throw new IllegalStateException("Falha ao ingerir " + result.failedFiles().size()
+                            + " arquivos no novo índice '" + newIndex + "': " + result.failedFiles());
+                }
+
+                logger.info("Aguardando {} segmentos ficarem visíveis em '{}'...", result.segmentsUploaded(), newIndex);
+                indexerService.waitUntilReady(newIndex, result.segmentsUploaded());
+            }
+            indexerService.logCacheStats();
+        } catch (RuntimeException | InterruptedException | IOException e) {
+            // Os aliases continuam nos índices anteriores; os índices parciais são descartados
+            logger.error("Reconstrução abortada; aliases permanecem em {}. Removendo {}.", previousIndexes.values(), created);
+            for (String newIndex : created) {
+                searchIndexClient.deleteIndex(newIndex);
+            }
+            throw e;
+        }
+
+        indexAliasService.switchAll(newIndexes);
+
+        if (dropPrevious) {
+            logger.info("Aguardando {} ms de carência antes de remover os índices anteriores {}", gracePeriodMs, previousIndexes.values());
+            Thread.sleep(gracePeriodMs);
+            for (String alias : aliases) {
+                String previousIndex = previousIndexes.get(alias);
+                if (previousIndex.equalsIgnoreCase(newIndexes.get(alias))) {
+                    continue;
+                }
+                try {
+                    searchIndexClient.deleteIndex(previousIndex);
+                    logger.info("Índice anterior '{}' removido.", previousIndex);
+                } catch (Exception e) {
+                    logger.warn("Não foi possível remover o índice anterior '{}': {}", previousIndex, e.getMessage());
+                }
+            }
+        }
+        logger.info("Reconstrução concluída: {}", newIndexes);
+    }
+}
@@ -1,93 +1,345 @@
 package com.langchain4j.chathealth.service;
 
 import com.azure.search.documents.SearchClient;
+import com.azure.search.documents.indexes.SearchIndexAsyncClient;
 import com.azure.search.documents.indexes.SearchIndexClient;
 import com.azure.search.documents.indexes.models.*;
 import com.azure.search.documents.models.SearchOptions;
-import com.azure.storage.blob.BlobContainerClient;
-import com.azure.storage.blob.BlobServiceClient;
-import com.azure.storage.blob.models.BlobItem;
+import com.azure.search.documents.util.SearchPagedResponse;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
-import dev.langchain4j.data.document.parser.apache.pdfbox.ApachePdfBoxDocumentParser;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.store.embedding.EmbeddingStore;
+import com.langchain4j.chathealth.service.embedding.ContentAddressedEmbeddingCache;
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+import com.langchain4j.chathealth.service.indexer.IndexingCheckpointStore;
+import com.langchain4j.chathealth.service.indexer.IndexingCheckpointStore.Checkpoint;
+import com.langchain4j.chathealth.service.indexer.IndexingCheckpointStore.Stage;
+import com.langchain4j.chathealth.service.indexer.PdfPageParser;
+import com.langchain4j.chathealth.service.search.IndexAliasService;
+import com.langchain4j.chathealth.service.search.ShardRouter;
+import com.langchain4j.chathealth.service.source.DocumentSource;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
  * Serviço de indexação de documentos PDF no Azure AI Search
  * Utiliza variáveis de ambiente em vez de arquivo .env
  */
+@Profile("indexer")
 @Service
 public class IndexerService {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexerService.class);
 
-    private record FileInfo(String filename, String hash) {}
+    record FileInfo(String filename, String hash, String version) {}
+
+    // Marcador de arquivo com segmentos de versões diferentes no índice
+    private static final String INCONSISTENT_HASH = "";
 
-    private final EmbeddingModel embeddingModel;
-    private final EmbeddingStore<TextSegment> embeddingStore;
     private final SearchIndexClient searchIndexClient;
-    private final BlobServiceClient blobServiceClient;
-    private final SearchClient searchClient;
+    private final SearchIndexAsyncClient searchIndexAsyncClient;
+    private final DocumentSource documentSource;
+    private final ContentAddressedEmbeddingCache embeddingCache;
+    private final IndexingCheckpointStore checkpointStore;
+    private final IndexAliasService indexAliasService;
+    private final ShardRouter shardRouter;
 
     private final String indexName;
     private final int embeddingDimension;
-    private final String containerName;
+    private final int chunkSize;
+    private final int chunkOverlap;
+    private final int hnswM;
+    private final int hnswEfConstruction;
+    private final int hnswEfSearch;
+    private final long readinessTimeoutMs;
+    private final int pagePrefetch;
+
+    // Manifestos do modo daemon, por shard: arquivo -> (versão, hash) do que já foi indexado no índice físico do shard
+    private final Map<String, ShardManifest> manifests = new java.util.HashMap<>();
 
-    public IndexerService(EmbeddingModel embeddingModel,
-                          EmbeddingStore<TextSegment> embeddingStore,
-                          SearchIndexClient searchIndexClient,
-                          BlobServiceClient blobServiceClient,
-                          SearchClient searchClient,
+    public IndexerService(SearchIndexClient searchIndexClient,
+                          SearchIndexAsyncClient searchIndexAsyncClient,
+                          DocumentSource documentSource,
+                          ContentAddressedEmbeddingCache embeddingCache,
+                          IndexingCheckpointStore checkpointStore,
+                          IndexAliasService indexAliasService,
+                          ShardRouter shardRouter,
                           @Value("${azure.search.index-name:}") String indexName,
                           @Value("${azure.search.embedding-dimension:1536}") int embeddingDimension,
-                          @Value("${azure.storage.container-name:}") String containerName) {
-        this.embeddingModel = embeddingModel;
-        this.embeddingStore = embeddingStore;
+                          @Value("${indexer.chunk-size:500}") int chunkSize,
+                          @Value("${indexer.chunk-overlap:100}") int chunkOverlap,
+                          @Value("${azure.search.hnsw.m:4}") int hnswM,
+                          @Value("${azure.search.hnsw.ef-construction:400}") int hnswEfConstruction,
+                          @Value("${azure.search.hnsw.ef-search:500}") int hnswEfSearch,
+                          @Value("${azure.search.readiness-timeout-ms:120000}") long readinessTimeoutMs,
+                          @Value("${azure.search.page-prefetch:2}") int pagePrefetch) {
         this.searchIndexClient = searchIndexClient;
-        this.blobServiceClient = blobServiceClient;
-        this.searchClient = searchClient;
+        this.searchIndexAsyncClient = searchIndexAsyncClient;
+        this.documentSource = documentSource;
+        this.embeddingCache = embeddingCache;
+        this.checkpointStore = checkpointStore;
+        this.indexAliasService = indexAliasService;
+        this.shardRouter = shardRouter;
         this.indexName = indexName;
         this.embeddingDimension = embeddingDimension;
-        this.containerName = containerName;
+        this.chunkSize = chunkSize;
+        this.chunkOverlap = chunkOverlap;
+        this.hnswM = hnswM;
+        this.hnswEfConstruction = hnswEfConstruction;
+        this.hnswEfSearch = hnswEfSearch;
+        this.readinessTimeoutMs = readinessTimeoutMs;
+        this.pagePrefetch = pagePrefetch;
         
-        logger.info("✅ IndexerService inicializado com indexName: {}, containerName: {}", indexName, containerName);
+        logger.info("✅ IndexerService inicializado com indexName: {}, shards: {}, origem: {}",
+                indexName, shardRouter.shards().size(), documentSource.describe());
     }
 
-    public void process() throws InterruptedException, NoSuchAlgorithmException, IOException {
-        if (indexName == null || indexName.isEmpty() || containerName == null || containerName.isEmpty()) {
-            logger.warn("⚠️ Configurações de índice ou container não definidas. Pulando processamento.");
+    public synchronized void process() throws InterruptedException, IOException {
+        if (!isConfigured()) {
+            logger.warn("⚠️ Configurações de índice ou origem de documentos não definidas. Pulando processamento.");
             return;
         }
         
         logger.info("Iniciando processo de sincronização do índice por hash: {}", indexName);
-        ensureIndexExists();
+        embeddingCache.resetStats();
+
+        // A leitura dos hashes já indexados (I/O não bloqueante) corre em paralelo com a listagem e o hash da origem
+        Map<String, String> physicalIndexes = new java.util.LinkedHashMap<>();
+        Map<String, CompletableFuture<Map<String, String>>> indexedHashes = new java.util.LinkedHashMap<>();
+        for (String shard : shardRouter.shards()) {
+            physicalIndexes.put(shard, ensureIndexExists(shard));
+        }
+        finishUploadedCheckpoints(physicalIndexes);
+        physicalIndexes.forEach((shard, physicalIndex) ->
+                indexedHashes.put(shard, ingestedFileHashes(physicalIndex).toFuture()));
 
-        Map<String, String> storageFileHashes = getFileHashesFromBlobStorage();
-        logger.info("Encontrados {} arquivos no Blob Storage.", storageFileHashes.size());
+        long start = System.nanoTime();
+        List<DocumentSource.SourceFile> documents = documentSource.listDocuments();
+        long listed = System.nanoTime();
+
+        // Arquivos com checkpoint pendente e mesma versão reaproveitam o hash registrado (sem novo download)
+        Map<String, Checkpoint> pending = checkpointStore.findAll().stream()
+                .collect(Collectors.toMap(Checkpoint::filename, checkpoint -> checkpoint, (c1, c2) -> c1));
+        Map<String, String> storageFileHashes = new java.util.HashMap<>();
+        Map<String, String> storageVersions = new java.util.HashMap<>();
+        List<String> toHash = new ArrayList<>();
+        for (DocumentSource.SourceFile file : documents) {
+            storageVersions.put(file.name(), file.version());
+            Checkpoint checkpoint = pending.get(file.name());
+            if (checkpoint != null && file.version() != null && file.version().equals(checkpoint.version())) {
+                storageFileHashes.put(file.name(), checkpoint.fileHash());
+            } else {
+                toHash.add(file.name());
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Encontrados {} checkpoints de ingestão pendentes; retomando.", pending.size());
+        }
+        storageFileHashes.putAll(documentSource.hashAll(toHash));
+        long hashed = System.nanoTime();
+        logger.info("Encontrados {} arquivos em {}.", storageFileHashes.size(), documentSource.describe());
         
-        Map<String, String> indexFileHashes = getIngestedFileHashesFromIndex();
-        logger.info("Encontrados {} arquivos já processados no índice.", indexFileHashes.size());
+        // Cada shard é sincronizado contra o seu próprio índice físico, apenas com os arquivos roteados para ele
+        Map<String, Map<String, String>> hashesByShard = partitionByShard(storageFileHashes);
+        for (String shard : shardRouter.shards()) {
+            SearchClient target = searchIndexClient.getSearchClient(physicalIndexes.get(shard));
+            Map<String, String> indexFileHashes = indexedHashes.get(shard).join();
+            logger.info("Encontrados {} arquivos já processados no índice '{}'.", indexFileHashes.size(), shard);
+            synchronize(target, hashesByShard.get(shard), storageVersions, indexFileHashes, new java.util.HashSet<>());
+        }
+        long synced = System.nanoTime();
+
+        logCacheStats();
+        logger.info("Tempos: listagem {} ms, hash {} ms, sincronização {} ms, total {} ms",
+                (listed - start) / 1_000_000, (hashed - listed) / 1_000_000,
+                (synced - hashed) / 1_000_000, (synced - start) / 1_000_000);
+        logger.info("Sincronização concluída com sucesso!");
+    }
+
+    /**
+     * Sincronização incremental usada pelo modo daemon.
+     * Mantém em memória um manifesto por shard (arquivo -> versão + hash) do que já está no índice, de modo
+     * que apenas documentos com versão diferente (ETag, data de modificação) são re-hasheados a cada ciclo.
+     * No primeiro ciclo o manifesto é semeado a partir dos hashes já presentes no índice.
+     */
+    public synchronized SyncResult processIncremental() throws InterruptedException, IOException {
+        if (!isConfigured()) {
+            logger.warn("⚠️ Configurações de índice ou origem de documentos não definidas. Pulando processamento.");
+            return new SyncResult(0, 0, 0);
+        }
+
+        Map<String, String> storageFileHashes = new java.util.HashMap<>();
+        Map<String, String> storageVersions = new java.util.HashMap<>();
+        List<String> toHash = new ArrayList<>();
+        Map<String, ShardManifest> current = new java.util.HashMap<>();
+        Map<String, String> physicalIndexes = new java.util.HashMap<>();
+        for (String shard : shardRouter.shards()) {
+            current.put(shard, manifestFor(shard));
+            physicalIndexes.put(shard, current.get(shard).physicalIndex());
+        }
+        finishUploadedCheckpoints(physicalIndexes);
+        for (DocumentSource.SourceFile file : documentSource.listDocuments()) {
+            ManifestEntry known = current.get(shardRouter.shardForFile(file.name())).entries().get(file.name());
+            if (known != null && file.version() != null && file.version().equals(known.version())) {
+                storageFileHashes.put(file.name(), known.hash());
+            } else {
+                toHash.add(file.name());
+            }
+            storageVersions.put(file.name(), file.version());
+        }
+        storageFileHashes.putAll(documentSource.hashAll(toHash));
+        int rehashed = toHash.size();
+
+        embeddingCache.resetStats();
+        int ingested = 0;
+        int deleted = 0;
+        Map<String, Map<String, String>> hashesByShard = partitionByShard(storageFileHashes);
+        for (String shard : shardRouter.shards()) {
+            ShardManifest manifest = current.get(shard);
+            Map<String, String> shardHashes = hashesByShard.get(shard);
+            Map<String, String> indexFileHashes = new java.util.HashMap<>();
+            manifest.entries().forEach((filename, entry) -> indexFileHashes.put(filename, entry.hash()));
+
+            java.util.Set<String> failedFiles = new java.util.HashSet<>();
+            SyncResult shardResult = synchronize(searchIndexClient.getSearchClient(manifest.physicalIndex()),
+                    shardHashes, storageVersions, indexFileHashes, failedFiles);
+            ingested += shardResult.ingested();
+            deleted += shardResult.deleted();
+
+            // Arquivos com falha de upload ficam fora do manifesto para serem reprocessados no próximo ciclo
+            Map<String, ManifestEntry> updated = new java.util.HashMap<>();
+            shardHashes.forEach((filename, hash) -> {
+                if (!failedFiles.contains(filename)) {
+                    updated.put(filename, new ManifestEntry(storageVersions.get(filename), hash));
+                }
+            });
+            manifests.put(shard, new ShardManifest(manifest.physicalIndex(), updated));
+        }
+
+        if (ingested > 0 || deleted > 0) {
+            logCacheStats();
+        }
+        logger.debug("Ciclo incremental: {} documentos listados, {} re-hasheados, {} ingeridos, {} removidos.",
+                storageFileHashes.size(), rehashed, ingested, deleted);
+        return new SyncResult(ingested, deleted, rehashed);
+    }
+
+    /**
+     * Conclui os checkpoints que pararam em UPLOADED (queda entre o upload e a limpeza): os segmentos novos já
+     * estão no índice, então basta remover os de versões anteriores e descartar o checkpoint. Um arquivo cujo
+     * hash no índice já confere não volta a ser ingerido, e o checkpoint ficaria pendente para sempre.
+     */
+    private void finishUploadedCheckpoints(Map<String, String> physicalIndexes) {
+        for (Checkpoint checkpoint : checkpointStore.findAll()) {
+            if (checkpoint.reached(Stage.UPLOADED)) {
+                logger.info("  -> Concluindo a limpeza interrompida de '{}'", checkpoint.filename());
+                String physicalIndex = physicalIndexes.get(shardRouter.shardForFile(checkpoint.filename()));
+                deleteStaleSegments(searchIndexClient.getSearchClient(physicalIndex),
+                        checkpoint.filename(), checkpoint.fileHash());
+                checkpointStore.clear(checkpoint.filename());
+            }
+        }
+    }
+
+    /**
+     * Resultado de uma sincronização: arquivos ingeridos, removidos e re-hasheados.
+     */
+    public record SyncResult(int ingested, int deleted, int rehashed) {}
+
+    private record ManifestEntry(String version, String hash) {}
+
+    private record ShardManifest(String physicalIndex, Map<String, ManifestEntry> entries) {}
+
+    /**
+     * Manifesto do shard; após uma troca de alias (reconstrução blue/green) é semeado novamente do novo índice.
+     */
+    private ShardManifest manifestFor(String shard) throws InterruptedException {
+        String physicalIndex = indexAliasService.resolve(shard);
+        ShardManifest manifest = manifests.get(shard);
+        if (manifest != null && physicalIndex.equals(manifest.physicalIndex())) {
+            return manifest;
+        }
+        physicalIndex = ensureIndexExists(shard);
+        Map<String, ManifestEntry> seeded = new java.util.HashMap<>();
+        ingestedFileHashes(physicalIndex).block()
+                .forEach((filename, hash) -> seeded.put(filename, new ManifestEntry(null, hash)));
+        manifest = new ShardManifest(physicalIndex, seeded);
+        manifests.put(shard, manifest);
+        logger.info("Manifesto incremental semeado com {} arquivos do índice '{}'.", seeded.size(), physicalIndex);
+        return manifest;
+    }
 
+    /**
+     * Separa os hashes da origem pelo shard de cada arquivo; todo shard aparece no resultado, mesmo vazio,
+     * para que arquivos removidos da origem também sejam removidos do seu índice.
+     */
+    private Map<String, Map<String, String>> partitionByShard(Map<String, String> fileHashes) {
+        Map<String, Map<String, String>> partitions = new java.util.LinkedHashMap<>();
+        shardRouter.shards().forEach(shard -> partitions.put(shard, new java.util.HashMap<>()));
+        fileHashes.forEach((filename, hash) -> partitions.get(shardRouter.shardForFile(filename)).put(filename, hash));
+        return partitions;
+    }
+
+    boolean isConfigured() {
+        return indexName != null && !indexName.isEmpty() && documentSource.isConfigured();
+    }
+
+    ShardRouter shardRouter() {
+        return shardRouter;
+    }
+
+    SearchIndexClient searchIndexClient() {
+        return searchIndexClient;
+    }
+
+    /**
+     * Lista e calcula o hash de todos os documentos da origem.
+     */
+    List<FileInfo> snapshotSource() throws IOException {
+        List<DocumentSource.SourceFile> documents = documentSource.listDocuments();
+        Map<String, String> hashes = documentSource.hashAll(
+                documents.stream().map(DocumentSource.SourceFile::name).collect(Collectors.toList()));
+        return documents.stream()
+                .map(file -> new FileInfo(file.name(), hashes.get(file.name()), file.version()))
+                .collect(Collectors.toList());
+    }
+
+    void resetEmbeddingStats() {
+        embeddingCache.resetStats();
+    }
+
+    /**
+     * Registra o callback de mudanças da origem de documentos (quando suportado).
+     */
+    public void watchForChanges(Runnable onChange) {
+        documentSource.watch(onChange);
+    }
+
+    private SyncResult synchronize(SearchClient target, Map<String, String> storageFileHashes,
+                                   Map<String, String> storageVersions, Map<String, String> indexFileHashes,
+                                   java.util.Set<String> failedFiles) throws InterruptedException {
         List<FileInfo> filesToIngest = storageFileHashes.entrySet().stream()
                 .filter(entry -> !entry.getValue().equals(indexFileHashes.get(entry.getKey())))
-                .map(entry -> new FileInfo(entry.getKey(), entry.getValue()))
+                .map(entry -> new FileInfo(entry.getKey(), entry.getValue(), storageVersions.get(entry.getKey())))
                 .collect(Collectors.toList());
 
         List<String> filesToDelete = indexFileHashes.keySet().stream()
@@ -96,172 +348,298 @@ public class IndexerService {
         
         if (!filesToDelete.isEmpty()) {
             logger.info("Arquivos para deletar do índice: {}", filesToDelete);
-            deleteDocumentsByFilename(filesToDelete);
+            deleteDocumentsByFilename(target, filesToDelete);
         } else {
-             logger.info("Nenhum arquivo para deletar.");
+             logger.debug("Nenhum arquivo para deletar.");
         }
         
         if (filesToIngest.isEmpty()) {
-            logger.info("Nenhum arquivo novo ou modificado para ingerir.");
+            logger.debug("Nenhum arquivo novo ou modificado para ingerir.");
         } else {
             logger.info("Arquivos novos ou modificados para ingerir: {}", 
                 filesToIngest.stream().map(FileInfo::filename).collect(Collectors.toList()));
-            List<String> modifiedFiles = filesToIngest.stream()
-                .map(FileInfo::filename)
-                .filter(indexFileHashes::containsKey)
-                .collect(Collectors.toList());
-            if (!modifiedFiles.isEmpty()) {
-                logger.info("Deletando versões antigas de arquivos modificados: {}", modifiedFiles);
-                deleteDocumentsByFilename(modifiedFiles);
-            }
-            ingestNewDocuments(filesToIngest);
+            // Versões antigas de arquivos modificados só são removidas após o upload da nova versão
+            // (ver ingestDocument), para que o arquivo nunca fique ausente da busca
+            failedFiles.addAll(ingestNewDocuments(target, filesToIngest, checkpointStore.isEnabled(), 1).failedFiles());
         }
-
-        logger.info("Sincronização concluída com sucesso!");
+        return new SyncResult(filesToIngest.size() - failedFiles.size(), filesToDelete.size(), 0);
     }
 
-    private Map<String, String> getFileHashesFromBlobStorage() throws NoSuchAlgorithmException, IOException {
-        BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-        Map<String, String> fileHashes = new java.util.HashMap<>();
-        for (BlobItem blob : containerClient.listBlobs()) {
-            if (blob.getName().toLowerCase().endsWith(".pdf")) {
-                try (InputStream inputStream = containerClient.getBlobClient(blob.getName()).openInputStream()) {
-                    String hash = calculateSha256(inputStream);
-                    fileHashes.put(blob.getName(), hash);
-                }
-            }
-        }
-        return fileHashes;
+    void logCacheStats() {
+        ContentAddressedEmbeddingCache.Stats cacheStats = embeddingCache.stats();
+        logger.info("Cache de embeddings: {} segmentos, {} reaproveitados ({}%), {} gerados, {} chamadas à API, {} chamadas evitadas",
+                cacheStats.chunksRequested(), cacheStats.chunksReused(),
+                String.format("%.1f", cacheStats.reuseRatio() * 100),
+                cacheStats.chunksEmbedded(), cacheStats.apiCalls(), cacheStats.apiCallsSaved());
     }
 
+    /**
+     * Lê (arquivo -> hash) de todos os segmentos do índice com o cliente assíncrono: enquanto uma página
+     * é processada, as próximas 'azure.search.page-prefetch' já estão sendo buscadas, sem bloquear threads.
+     */
     @SuppressWarnings("unchecked")
-    private Map<String, String> getIngestedFileHashesFromIndex() {
+    private Mono<Map<String, String>> ingestedFileHashes(String physicalIndex) {
         SearchOptions options = new SearchOptions().setSelect("metadata/source", "metadata/file_hash");
-        Map<String, String> fileHashes = new java.util.HashMap<>();
-        
-        try {
-            searchClient.search(null, options, null).forEach(result -> {
-                Map<String, Object> document = result.getDocument(Map.class);
-                if (document.get("metadata") instanceof Map) {
-                    Map<String, Object> metadata = (Map<String, Object>) document.get("metadata");
-                    Object sourceValue = metadata.get("source");
-                    Object hashValue = metadata.get("file_hash");
-                    if (sourceValue != null && hashValue != null) {
-                        fileHashes.put(sourceValue.toString(), hashValue.toString());
+        return searchIndexAsyncClient.getSearchAsyncClient(physicalIndex)
+                .search(null, options)
+                .byPage()
+                .flatMapIterable(SearchPagedResponse::getValue, pagePrefetch)
+                .reduceWith(() -> (Map<String, String>) new java.util.HashMap<String, String>(), (fileHashes, result) -> {
+                    Map<String, Object> document = result.getDocument(Map.class);
+                    if (document.get("metadata") instanceof Map) {
+                        Map<String, Object> metadata = (Map<String, Object>) document.get("metadata");
+                        Object sourceValue = metadata.get("source");
+                        Object hashValue = metadata.get("file_hash");
+                        if (sourceValue != null && hashValue != null) {
+                            // Hashes divergentes para o mesmo arquivo indicam uma ingestão interrompida entre o
+                            // upload e a limpeza dos segmentos antigos: força o reprocessamento (retomado pelo checkpoint)
+                            fileHashes.merge(sourceValue.toString(), hashValue.toString(),
+                                    (v1, v2) -> v1.equals(v2) ? v1 : INCONSISTENT_HASH);
+                        }
                     }
-                }
-            });
-        } catch (Exception e) {
-            logger.warn("Aviso: Não foi possível obter os hashes do índice (pode estar vazio). {}", e.getMessage());
-        }
-        return fileHashes.entrySet().stream()
-                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1));
+                    return fileHashes;
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Aviso: Não foi possível obter os hashes do índice (pode estar vazio). {}", e.getMessage());
+                    return Mono.just(new java.util.HashMap<String, String>());
+                });
     }
     
     // MÉTODO COMPLETAMENTE REESCRITO PARA CONTROLE TOTAL, ABANDONANDO O EmbeddingStoreIngestor
-    private void ingestNewDocuments(List<FileInfo> filesToIngest) {
-        BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-        ApachePdfBoxDocumentParser documentParser = new ApachePdfBoxDocumentParser();
-        DocumentSplitter splitter = DocumentSplitters.recursive(500, 100);
+    record IngestResult(List<String> failedFiles, long segmentsUploaded) {}
 
-        for (FileInfo fileInfo : filesToIngest) {
-            logger.info("  -> Processando para ingestão manual: {}", fileInfo.filename());
+    // Com parallelism > 1 os arquivos são ingeridos concorrentemente (usado na reconstrução do índice)
+    IngestResult ingestNewDocuments(SearchClient target, List<FileInfo> filesToIngest,
+                                    boolean useCheckpoints, int parallelism) throws InterruptedException {
+        List<String> failedFiles = java.util.Collections.synchronizedList(new ArrayList<>());
+        java.util.concurrent.atomic.AtomicLong segmentsUploaded = new java.util.concurrent.atomic.AtomicLong();
+        PdfPageParser documentParser = new PdfPageParser();
+        DocumentSplitter splitter = DocumentSplitters.recursive(chunkSize, chunkOverlap);
 
-            // 1. Carrega o documento
-            Document document = documentParser.parse(
-                    containerClient.getBlobClient(fileInfo.filename()).openInputStream()
-            );
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, filesToIngest.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (FileInfo fileInfo : filesToIngest) {
+                futures.add(executor.submit(() -> {
+                    logger.info("  -> Processando para ingestão manual: {}", fileInfo.filename());
+                    try {
+                        segmentsUploaded.addAndGet(ingestDocument(target, fileInfo, documentParser, splitter, useCheckpoints));
+                    } catch (Exception e) {
+                        // O checkpoint preserva as etapas concluídas; a próxima execução retoma deste ponto
+                        logger.error("Erro ao ingerir '{}': {}", fileInfo.filename(), e.getMessage());
+                        failedFiles.add(fileInfo.filename());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro inesperado na ingestão", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new IngestResult(new ArrayList<>(failedFiles), segmentsUploaded.get());
+    }
+
+    /**
+     * Ingere um arquivo em etapas com checkpoint: download -> parse -> embedding -> upload -> limpeza.
+     * Cada etapa já concluída em uma execução anterior (mesmo hash de arquivo) é reaproveitada do disco.
+     */
+    private int ingestDocument(SearchClient searchClient, FileInfo fileInfo, PdfPageParser documentParser,
+                                DocumentSplitter splitter, boolean checkpointing) throws IOException {
+        String filename = fileInfo.filename();
+        Checkpoint checkpoint = checkpointing ? checkpointStore.find(filename, fileInfo.hash()).orElse(null) : null;
+        if (checkpoint != null) {
+            logger.info("  -> Retomando '{}' a partir da etapa {}", filename, checkpoint.stage());
+        }
 
-            // 2. Divide o documento em segmentos
-            List<TextSegment> segments = splitter.split(document);
+        // 1. Carrega o documento (uma página por Document, com os atributos do caminho) e 2. divide em segmentos
+        List<TextSegment> segments = null;
+        if (checkpoint != null && checkpoint.reached(Stage.PARSED)) {
+            try {
+                segments = checkpointStore.loadSegments(filename);
+            } catch (IOException e) {
+                // Segmentos ilegíveis ou sem atributos invalidam o checkpoint: o arquivo é reprocessado do zero
+                logger.warn("  -> Checkpoint de '{}' inválido; reprocessando do zero. {}", filename, e.getMessage());
+                checkpointStore.clear(filename);
+                checkpoint = null;
+            }
+        }
+        if (segments == null) {
+            Map<String, String> attributes = DocumentAttributes.fromPath(filename);
+            List<Document> pages;
+            if (checkpointing) {
+                if (checkpoint == null) {
+                    try (InputStream inputStream = documentSource.open(filename)) {
+                        checkpointStore.saveDownload(filename, inputStream);
+                    }
+                    checkpoint = checkpointStore.advance(filename, fileInfo.version(), fileInfo.hash(), Stage.DOWNLOADED, 0);
+                }
+                try (InputStream inputStream = Files.newInputStream(checkpointStore.downloadedFile(filename))) {
+                    pages = documentParser.parse(inputStream, attributes);
+                }
+            } else {
+                try (InputStream inputStream = documentSource.open(filename)) {
+                    pages = documentParser.parse(inputStream, attributes);
+                }
+            }
+            segments = new ArrayList<>();
+            for (Document page : pages) {
+                segments.addAll(splitter.split(page));
+            }
+            if (checkpointing) {
+                checkpointStore.saveSegments(filename, segments);
+                checkpoint = checkpointStore.advance(filename, fileInfo.version(), fileInfo.hash(), Stage.PARSED, segments.size());
+            }
+        }
+
+        // 3. Gera embeddings apenas para segmentos inéditos; os demais vêm do cache por conteúdo
+        List<Embedding> embeddings;
+        if (checkpoint != null && checkpoint.reached(Stage.EMBEDDED)) {
+            embeddings = checkpointStore.loadEmbeddings(filename);
+        } else {
+            embeddings = embeddingCache.embedAll(segments);
+            if (checkpointing) {
+                checkpointStore.saveEmbeddings(filename, embeddings);
+                checkpoint = checkpointStore.advance(filename, fileInfo.version(), fileInfo.hash(), Stage.EMBEDDED, segments.size());
+            }
+        }
 
-            // 3. ENRIQUECE CADA SEGMENTO MANUALMENTE COM OS METADADOS
+        // 4. Upload manual para o Azure Search (sobrescreve os ids existentes do mesmo arquivo)
+        if (checkpoint == null || !checkpoint.reached(Stage.UPLOADED)) {
             List<Map<String, Object>> docsToUpload = new ArrayList<>();
-            // Gera embeddings para todos os segmentos
-            List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+            // Gera id seguro: substitui tudo que não for [a-zA-Z0-9_-] por '_'
+            String safeFilename = filename.replaceAll("[^a-zA-Z0-9_-]", "_");
             int idx = 0;
             for (TextSegment segment : segments) {
                 Map<String, Object> doc = new java.util.HashMap<>();
-                // Gera id seguro: substitui tudo que não for [a-zA-Z0-9_-] por '_'
-                String safeFilename = fileInfo.filename().replaceAll("[^a-zA-Z0-9_-]", "_");
                 doc.put("id", safeFilename + "_" + idx);
                 doc.put("content", segment.text());
                 // Cria objeto metadata conforme schema
                 Map<String, Object> metadata = new java.util.HashMap<>();
-                metadata.put("source", fileInfo.filename());
+                metadata.put("source", filename);
                 metadata.put("file_hash", fileInfo.hash());
+                metadata.put("attributes", attributesOf(segment, idx));
                 doc.put("metadata", metadata);
                 // Adiciona o vetor de embedding
                 doc.put("content_vector", embeddings.get(idx).vector());
                 docsToUpload.add(doc);
                 idx++;
             }
-
-            // 4. Upload manual para o Azure Search
-            try {
-                searchClient.uploadDocuments(docsToUpload);
-                logger.info("  -> {} segmentos para '{}' foram enviados manualmente para o índice.", 
-                    docsToUpload.size(), fileInfo.filename());
-            } catch (Exception e) {
-                logger.error("Erro ao enviar documentos para o índice: {}", e.getMessage());
+            searchClient.uploadDocuments(docsToUpload);
+            logger.info("  -> {} segmentos para '{}' foram enviados manualmente para o índice.", 
+                docsToUpload.size(), filename);
+            if (checkpointing) {
+                checkpointStore.advance(filename, fileInfo.version(), fileInfo.hash(), Stage.UPLOADED, segments.size());
             }
         }
+
+        // 5. Remove segmentos de versões anteriores do arquivo que não foram sobrescritos
+        deleteStaleSegments(searchClient, filename, fileInfo.hash());
+        if (checkpointing) {
+            checkpointStore.clear(filename);
+        }
+        return segments.size();
     }
 
-    @SuppressWarnings("unchecked")
-    private void deleteDocumentsByFilename(List<String> filenames) {
-        String filter = filenames.stream()
-                .map(name -> "metadata/source eq '" + name.replace("'", "''") + "'")
-                .collect(Collectors.joining(" or "));
+    /**
+     * Converte os metadados do segmento (atributos do caminho e página) na coleção chave/valor
+     * 'metadata/attributes', no mesmo formato que o AzureAiSearchEmbeddingStore usa para filtrar.
+     */
+    private static List<Map<String, String>> attributesOf(TextSegment segment, int chunkIndex) {
+        List<Map<String, String>> attributes = new ArrayList<>();
+        segment.metadata().toMap().forEach((key, value) -> {
+            // 'index' é a posição dentro da página, atribuída pelo splitter; usamos a posição no arquivo
+            if (!"index".equals(key) && value != null) {
+                attributes.add(Map.of("key", key, "value", value.toString()));
+            }
+        });
+        attributes.add(Map.of("key", DocumentAttributes.CHUNK_INDEX, "value", String.valueOf(chunkIndex)));
+        return attributes;
+    }
+
+    private void deleteDocumentsByFilename(SearchClient searchClient, List<String> filenames) {
+        deleteDocuments(searchClient, filenames.stream()
+                .map(name -> "metadata/source eq '" + escape(name) + "'")
+                .collect(Collectors.joining(" or ")));
+    }
 
+    private void deleteStaleSegments(SearchClient searchClient, String filename, String fileHash) {
+        deleteDocuments(searchClient, "metadata/source eq '" + escape(filename)
+                + "' and metadata/file_hash ne '" + escape(fileHash) + "'");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deleteDocuments(SearchClient searchClient, String filter) {
         logger.info("Deletando documentos com filtro: {}", filter);
         try {
-            List<String> idsToDelete = new ArrayList<>();
+            List<Map<String, Object>> idsToDelete = new ArrayList<>();
             SearchOptions options = new SearchOptions().setFilter(filter).setSelect("id");
             searchClient.search(null, options, null)
-                        .forEach(result -> idsToDelete.add(result.getDocument(Map.class).get("id").toString()));
+                        .forEach(result -> idsToDelete.add(Map.of("id", result.getDocument(Map.class).get("id"))));
             
             if (!idsToDelete.isEmpty()) {
-                embeddingStore.removeAll(idsToDelete);
+                searchClient.deleteDocuments(idsToDelete);
                 logger.info("{} segmentos de texto foram deletados.", idsToDelete.size());
             }
         } catch (Exception e) {
             logger.error("Erro ao deletar documentos antigos: {}", e.getMessage());
         }
     }
-    
-    private String calculateSha256(InputStream inputStream) throws NoSuchAlgorithmException, IOException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] buffer = new byte[8192];
-        int bytesRead;
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-            digest.update(buffer, 0, bytesRead);
-        }
-        byte[] hashBytes = digest.digest();
-        StringBuilder hexString = new StringBuilder(2 * hashBytes.length);
-        for (byte b : hashBytes) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
-        }
-        return hexString.toString();
+
+    private static String escape(String value) {
+        return value.replace("'", "''");
     }
     
-    private void ensureIndexExists() throws InterruptedException {
-        if (!searchIndexClient.listIndexes().stream().anyMatch(index -> index.getName().equalsIgnoreCase(indexName))) {
+    /**
+     * Garante que o índice físico apontado pelo alias (do índice ou de um shard) existe e está pronto, retornando seu nome.
+     */
+    private String ensureIndexExists(String logicalName) throws InterruptedException {
+        String physicalIndex = indexAliasService.resolve(logicalName);
+        if (!searchIndexClient.listIndexes().stream().anyMatch(index -> index.getName().equalsIgnoreCase(physicalIndex))) {
             logger.info("Índice não encontrado. Criando novo índice...");
-            searchIndexClient.createIndex(buildSearchIndex());
-            logger.info("Aguardando provisionamento do índice...");
-            Thread.sleep(8000);
+            createIndex(physicalIndex);
             logger.info("Índice criado e pronto para uso.");
         } else {
             logger.info("Índice existente encontrado. Prosseguindo com a sincronização.");
         }
+        return physicalIndex;
+    }
+
+    void createIndex(String physicalIndex) throws InterruptedException {
+        searchIndexClient.createIndex(buildSearchIndex(physicalIndex));
+        logger.info("Aguardando provisionamento do índice '{}'...", physicalIndex);
+        waitUntilReady(physicalIndex, 0);
+    }
+
+    /**
+     * Consulta o índice até que ele responda e contenha ao menos a quantidade esperada de documentos,
+     * em vez de aguardar um tempo fixo.
+     */
+    void waitUntilReady(String physicalIndex, long expectedDocuments) throws InterruptedException {
+        SearchClient client = searchIndexClient.getSearchClient(physicalIndex);
+        long deadline = System.currentTimeMillis() + readinessTimeoutMs;
+        long delayMs = 250;
+        while (true) {
+            try {
+                long count = client.getDocumentCount();
+                if (count >= expectedDocuments) {
+                    return;
+                }
+                logger.debug("Índice '{}' com {} de {} documentos visíveis.", physicalIndex, count, expectedDocuments);
+            } catch (Exception e) {
+                logger.debug("Índice '{}' ainda não disponível: {}", physicalIndex, e.getMessage());
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Índice '" + physicalIndex + "' não ficou pronto em " + readinessTimeoutMs + " ms");
+            }
+            Thread.sleep(delayMs);
+            delayMs = Math.min(delayMs * 2, 5000);
+        }
     }
 
-    private SearchIndex buildSearchIndex() {
+    private SearchIndex buildSearchIndex(String physicalIndex) {
         String vectorSearchProfile = "my-vector-profile";
         String vectorSearchHnswConfig = "my-hnsw-vector-config";
 
@@ -281,7 +659,7 @@ public class IndexerService {
                     .setFields(attributeFields)
         );
 
-        return new SearchIndex(indexName)
+        return new SearchIndex(physicalIndex)
                 .setFields(List.of(
                         new SearchField("id", SearchFieldDataType.STRING)
                             .setKey(true).setFilterable(true).setSortable(true).setFacetable(true).setSearchable(true),
@@ -296,7 +674,11 @@ public class IndexerService {
                 ))
                 .setVectorSearch(new VectorSearch()
                         .setProfiles(List.of(new VectorSearchProfile(vectorSearchProfile, vectorSearchHnswConfig)))
-                        .setAlgorithms(List.of(new HnswAlgorithmConfiguration(vectorSearchHnswConfig)))
+                        .setAlgorithms(List.of(new HnswAlgorithmConfiguration(vectorSearchHnswConfig)
+                                .setParameters(new HnswParameters()
+                                        .setM(hnswM)
+                                        .setEfConstruction(hnswEfConstruction)
+                                        .setEfSearch(hnswEfSearch))))
                 );
     }
 }
@@ -1,33 +1,264 @@
 package com.langchain4j.chathealth.service;
 
-import dev.langchain4j.service.AiServices;
-import dev.langchain4j.rag.content.retriever.ContentRetriever;
-import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.Result;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.context.annotation.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.langchain4j.chathealth.service.indexer.SegmentAttributes;
+import com.langchain4j.chathealth.service.rag.ContextAssembler;
+import com.langchain4j.chathealth.service.rag.DeadlineExceededException;
+import com.langchain4j.chathealth.service.rag.DeadlineMetrics;
+import com.langchain4j.chathealth.service.rag.DeadlinePolicy;
+import com.langchain4j.chathealth.service.rag.ExtractiveAnswerer;
+import com.langchain4j.chathealth.service.rag.ModelTier;
+import com.langchain4j.chathealth.service.rag.ModelTierMetrics;
+import com.langchain4j.chathealth.service.rag.QuestionComplexityClassifier;
 import com.langchain4j.chathealth.service.rag.RagAssistant;
+import com.langchain4j.chathealth.service.rag.RequestDeadline;
+import com.langchain4j.chathealth.service.rag.ServingPath;
+import com.langchain4j.chathealth.service.search.RetrievalFilterFactory;
+import com.langchain4j.chathealth.service.search.ScopedContentRetriever;
+import com.langchain4j.chathealth.service.search.ShardRouter;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Profile("!indexer")
 @Service
 public class RagService {
 
+    private static final Logger logger = LoggerFactory.getLogger(RagService.class);
+
+    static final String NO_CONTENT_ANSWER = "Nenhum conteúdo relacionado foi encontrado para sua pergunta.";
+    static final String DEADLINE_NO_CONTENT_ANSWER = "Não foi possível consultar a base de conhecimento dentro do prazo. Tente novamente.";
+    static final String DEADLINE_PASSAGES_ANSWER = "Não foi possível gerar a resposta dentro do prazo. Trechos mais relevantes encontrados:";
+
+    /**
+     * Resposta com o tier que a gerou e o motivo da escolha.
+     * @param degradation "passages-only" (só os trechos, sem geração) ou "no-passages" quando o prazo estourou;
+     *                    null quando a resposta foi gerada normalmente. O reason indica a etapa (ex.: deadline-generate)
+     * @param path caminho que atendeu a pergunta (extrativo, gerado, degradado)
+     * @param confidence score do melhor trecho recuperado (0 sem trechos)
+     */
+    public record RagAnswer(String answer, ModelTier tier, String reason, int contents, String degradation,
+                            ServingPath path, double confidence) {
+    }
+
     private final RagAssistant ragAssistant;
-    private final ContentRetriever contentRetriever;
-
-    // O RagAssistant agora é construído uma vez e injetado aqui
-    public RagService(ChatModel chatModel, ContentRetriever contentRetriever) {
-        this.ragAssistant = AiServices.builder(RagAssistant.class)
-                .chatModel(chatModel)
-                .contentRetriever(contentRetriever)
-                .build();
+    private final RagAssistant fastRagAssistant;
+    private final ScopedContentRetriever contentRetriever;
+    private final RetrievalFilterFactory filterFactory;
+    private final ShardRouter shardRouter;
+    private final QuestionComplexityClassifier classifier;
+    private final ModelTierMetrics tierMetrics;
+    private final ContextAssembler contextAssembler;
+    private final ExtractiveAnswerer extractiveAnswerer;
+    private final DeadlinePolicy deadlinePolicy;
+    private final DeadlineMetrics deadlineMetrics;
+    // Cada etapa roda numa virtual thread própria para poder ser interrompida quando o prazo estoura
+    private final ExecutorService stageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Os RagAssistants são construídos uma única vez em RagConfiguration e injetados aqui
+    public RagService(RagAssistant ragAssistant,
+                      @Qualifier("fastRagAssistant") RagAssistant fastRagAssistant,
+                      ScopedContentRetriever contentRetriever,
+                      RetrievalFilterFactory filterFactory,
+                      ShardRouter shardRouter,
+                      QuestionComplexityClassifier classifier,
+                      ModelTierMetrics tierMetrics,
+                      ContextAssembler contextAssembler,
+                      ExtractiveAnswerer extractiveAnswerer,
+                      DeadlinePolicy deadlinePolicy,
+                      DeadlineMetrics deadlineMetrics) {
+        this.ragAssistant = ragAssistant;
+        this.fastRagAssistant = fastRagAssistant;
         this.contentRetriever = contentRetriever;
+        this.filterFactory = filterFactory;
+        this.shardRouter = shardRouter;
+        this.classifier = classifier;
+        this.tierMetrics = tierMetrics;
+        this.contextAssembler = contextAssembler;
+        this.extractiveAnswerer = extractiveAnswerer;
+        this.deadlinePolicy = deadlinePolicy;
+        this.deadlineMetrics = deadlineMetrics;
+    }
+
+    public RagAnswer answer(String question, Map<String, Object> context) {
+        return answer(question, context, null);
+    }
+
+    /**
+     * Recupera o contexto uma única vez, escolhe o tier do modelo pela complexidade da pergunta e gera a resposta
+     * (se o tier rápido falhar, a geração é refeita no tier padrão).
+     * Se o melhor trecho é uma FAQ curada com score e margem suficientes, ele é devolvido sem chamar o modelo.
+     * Embedding, busca e geração recebem fatias do prazo da requisição; a etapa que estoura é cancelada e a
+     * resposta degrada: sem trechos, uma mensagem de indisponibilidade; sem geração, os trechos recuperados.
+     * @param context campos de ChatRequest.context; os permitidos viram pré-filtros da busca (ex.: tenant, plan)
+     * @param timeoutMs prazo pedido pelo chamador (header X-Request-Timeout-Ms); null usa 'rag.deadline.default-ms'
+     */
+    public RagAnswer answer(String question, Map<String, Object> context, Long timeoutMs) {
+        long requestStart = System.currentTimeMillis();
+        RequestDeadline deadline = deadlinePolicy.start(timeoutMs);
+        if (deadline != null) {
+            deadlineMetrics.started();
+        }
+
+        // Busca os resultados relevantes, restritos ao escopo do contexto
+        Filter filter = filterFactory.fromContext(context);
+        if (filter != null) {
+            logger.debug("Recuperação com pré-filtro: {}", filter);
+        }
+        List<Content> contents;
+        try {
+            Embedding embedding = runStage("embed", deadline, deadlinePolicy.embedShare(),
+                    () -> contentRetriever.embed(question));
+            // Com o índice dividido, o atributo de roteamento no contexto limita a busca aos shards que o contêm
+            contents = runStage("search", deadline, deadlinePolicy.searchShare(),
+                    () -> contentRetriever.search(embedding, filter, shardRouter.shardsForContext(context)));
+        } catch (DeadlineExceededException e) {
+            return degraded(e.stage(), DEADLINE_NO_CONTENT_ANSWER, null, List.of(), requestStart);
+        }
+        if (contents == null || contents.isEmpty()) {
+            completed(deadline);
+            return served(new RagAnswer(NO_CONTENT_ANSWER, null, "no-content", 0, null, ServingPath.NO_CONTENT, 0.0),
+                    requestStart);
+        }
+
+        // Caminho rápido: FAQ curada com um par pergunta/resposta claro no melhor trecho, sem chamada ao modelo
+        Optional<ExtractiveAnswerer.ExtractiveAnswer> extractive = extractiveAnswerer.answer(question, contents);
+        if (extractive.isPresent()) {
+            completed(deadline);
+            ExtractiveAnswerer.ExtractiveAnswer faq = extractive.get();
+            logger.info("⚡ Pergunta atendida pelo caminho EXTRATIVO (fonte {}, score {}, margem {})", faq.source(),
+                    String.format("%.3f", faq.confidence()), String.format("%.3f", faq.margin()));
+            return served(new RagAnswer(faq.answer(), null, "extractive-faq", contents.size(), null,
+                    ServingPath.EXTRACTIVE, faq.confidence()), requestStart);
+        }
+
+        QuestionComplexityClassifier.Classification classification = classifier.classify(question, contents);
+        RagAssistant assistant = classification.tier() == ModelTier.FAST ? fastRagAssistant : ragAssistant;
+        // Trechos vizinhos unidos, quase-duplicatas descartadas e o total limitado ao orçamento de tokens
+        ContextAssembler.AssembledContext assembled = contextAssembler.assemble(contents);
+        String retrievedContext = assembled.text();
+        logger.debug("Contexto: {} segmentos -> {} trechos, ~{} -> ~{} tokens", assembled.inputSegments(),
+                assembled.passages(), assembled.inputEstimatedTokens(), assembled.estimatedTokens());
+
+        if (deadline != null && deadline.remainingMs() < deadlinePolicy.minGenerationMs()) {
+            // Não há tempo útil para a geração: nem inicia a chamada ao modelo
+            deadlineMetrics.timedOut("generate");
+            return degraded("generate", DEADLINE_PASSAGES_ANSWER + "\n\n" + retrievedContext, classification, contents,
+                    requestStart);
+        }
+
+        long start = System.currentTimeMillis();
+        Result<String> result;
+        try {
+            try {
+                result = runStage("generate", deadline, 1.0, () -> assistant.augmentedChat(question, retrievedContext));
+            } catch (DeadlineExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (classification.tier() != ModelTier.FAST || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                // Tier rápido indisponível (ex.: deployment de fast-chat-model inexistente): a pergunta cai no tier padrão
+                logger.warn("⚠️ Tier FAST falhou ({}); respondendo com o tier STANDARD.", e.getMessage());
+                classification = new QuestionComplexityClassifier.Classification(ModelTier.STANDARD, "fast-fallback");
+                start = System.currentTimeMillis();
+                result = runStage("generate", deadline, 1.0, () -> ragAssistant.augmentedChat(question, retrievedContext));
+            }
+        } catch (DeadlineExceededException e) {
+            return degraded(e.stage(), DEADLINE_PASSAGES_ANSWER + "\n\n" + retrievedContext, classification, contents,
+                    requestStart);
+        }
+        long latencyMs = System.currentTimeMillis() - start;
+
+        TokenUsage usage = result.tokenUsage();
+        tierMetrics.record(classification, latencyMs,
+                usage == null ? null : usage.inputTokenCount(),
+                usage == null ? null : usage.outputTokenCount());
+        logger.debug("Pergunta atendida pelo tier {} ({}) em {} ms", classification.tier(), classification.reason(), latencyMs);
+        completed(deadline);
+        return served(new RagAnswer(result.content(), classification.tier(), classification.reason(), contents.size(),
+                null, ServingPath.GENERATED, SegmentAttributes.score(contents, 0)), requestStart);
+    }
+
+    /**
+     * Executa uma etapa com a sua fatia do prazo. Ao estourar, a virtual thread da etapa é interrompida,
+     * o que aborta a chamada HTTP em andamento (e as requisições de hedge do DeploymentRouter).
+     */
+    private <T> T runStage(String stage, RequestDeadline deadline, double share, Callable<T> work) {
+        if (deadline == null) {
+            try {
+                return work.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        long budgetMs = deadline.stageBudgetMs(share);
+        Future<T> future = stageExecutor.submit(work);
+        try {
+            return future.get(budgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            deadlineMetrics.timedOut(stage);
+            logger.warn("⏱️ Etapa '{}' excedeu {} ms (prazo da requisição: {} ms); cancelada.", stage, budgetMs, deadline.budgetMs());
+            throw new DeadlineExceededException(stage, budgetMs);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // A requisição foi abandonada: a etapa também é cancelada
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Requisição interrompida na etapa '" + stage + "'", e);
+        }
+    }
+
+    private RagAnswer degraded(String stage, String answer, QuestionComplexityClassifier.Classification classification,
+                               List<Content> contents, long requestStart) {
+        String degradation = contents.isEmpty() ? "no-passages" : "passages-only";
+        deadlineMetrics.degraded(degradation);
+        return served(new RagAnswer(answer,
+                classification == null ? null : classification.tier(),
+                "deadline-" + stage,
+                contents.size(),
+                degradation,
+                ServingPath.DEGRADED,
+                SegmentAttributes.score(contents, 0)), requestStart);
+    }
+
+    // Registra e loga o caminho que atendeu a pergunta
+    private RagAnswer served(RagAnswer answer, long requestStart) {
+        long latencyMs = System.currentTimeMillis() - requestStart;
+        tierMetrics.recordPath(answer.path(), latencyMs);
+        logger.info("Pergunta atendida pelo caminho {} ({}) em {} ms, confiança {}", answer.path(), answer.reason(),
+                latencyMs, String.format("%.3f", answer.confidence()));
+        return answer;
     }
 
-    public String ask(String question) {
-        // Busca os resultados relevantes
-        var result = contentRetriever.retrieve(dev.langchain4j.rag.query.Query.from(question));
-        if (result == null || ((result instanceof java.util.Collection) && ((java.util.Collection<?>) result).isEmpty())) {
-            return "Nenhum conteúdo relacionado foi encontrado para sua pergunta.";
+    private void completed(RequestDeadline deadline) {
+        if (deadline != null) {
+            deadlineMetrics.completed();
         }
-        return ragAssistant.augmentedChat(question);
     }
-}
\ No newline at end of file
+}
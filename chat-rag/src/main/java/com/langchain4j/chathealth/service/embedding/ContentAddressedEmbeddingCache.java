@@ -0,0 +1,285 @@
+package com.langchain4j.chathealth.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.configuration.routing.ModelRoutingProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.openai.models.embeddings.EmbeddingModel.TEXT_EMBEDDING_3_SMALL;
+
+/**
+ * Cache de embeddings endereçado por conteúdo.
+ * A chave é (SHA-256 do texto do segmento, modelo de embedding, dimensão), de forma que
+ * re-ingestões e trechos repetidos entre documentos só chamam a API para textos inéditos.
+ * Os vetores são persistidos em um arquivo local append-only por modelo/dimensão; o modelo vem dos
+ * deployments de 'azure.openai.routing.embedding-deployments', para que trocar o modelo nunca reaproveite
+ * vetores de outro espaço de embedding.
+ */
+@Profile("indexer")
+@Component
+public class ContentAddressedEmbeddingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedEmbeddingCache.class);
+
+    private static final int HASH_BYTES = 32;
+
+    /**
+     * Estatísticas de uma execução do indexador.
+     */
+    public record Stats(long chunksRequested, long chunksReused, long chunksEmbedded,
+                        long apiCalls, long apiCallsSaved) {
+
+        public double reuseRatio() {
+            return chunksRequested == 0 ? 0.0 : (double) chunksReused / chunksRequested;
+        }
+    }
+
+    private final EmbeddingModel embeddingModel;
+    private final boolean enabled;
+    private final Path storeFile;
+    private final int dimension;
+
+    // hash do texto -> posição do registro no arquivo
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile boolean loaded;
+
+    private final AtomicLong chunksRequested = new AtomicLong();
+    private final AtomicLong chunksReused = new AtomicLong();
+    private final AtomicLong chunksEmbedded = new AtomicLong();
+    private final AtomicLong apiCalls = new AtomicLong();
+    private final AtomicLong apiCallsSaved = new AtomicLong();
+
+    public ContentAddressedEmbeddingCache(EmbeddingModel embeddingModel,
+                                          @Value("${rag.embedding-cache.enabled:true}") boolean enabled,
+                                          @Value("${rag.embedding-cache.path:.cache/embeddings}") String path,
+                                          ModelRoutingProperties routing,
+                                          @Value("${azure.search.embedding-dimension:1536}") int dimension) {
+        this.embeddingModel = embeddingModel;
+        this.enabled = enabled;
+        this.dimension = dimension;
+        this.storeFile = Paths.get(path, namespace(routing, dimension) + ".bin");
+    }
+
+    /**
+     * Modelos dos deployments de embedding (o mesmo padrão de AzureEmbeddingModelConfiguration quando não há
+     * deployments configurados) e a dimensão. Deployments com modelos diferentes geram um namespace próprio.
+     */
+    static String namespace(ModelRoutingProperties routing, int dimension) {
+        List<String> models = routing.embeddingDeployments().isEmpty()
+                ? List.of(TEXT_EMBEDDING_3_SMALL.asString())
+                : routing.embeddingDeployments().stream().map(ModelRoutingProperties.Deployment::model).distinct().sorted().toList();
+        if (models.size() > 1) {
+            logger.warn("⚠️ Deployments de embedding com modelos diferentes ({}): os vetores não são comparáveis entre si.", models);
+        }
+        return String.join("+", models).replaceAll("[^a-zA-Z0-9_.+-]", "_") + "-" + dimension;
+    }
+
+    /**
+     * Gera os embeddings dos segmentos reaproveitando os vetores já conhecidos.
+     * Apenas textos inéditos (deduplicados também dentro do próprio lote) são enviados ao modelo.
+     */
+    public List<Embedding> embedAll(List<TextSegment> segments) {
+        chunksRequested.addAndGet(segments.size());
+        if (!enabled) {
+            apiCalls.incrementAndGet();
+            chunksEmbedded.addAndGet(segments.size());
+            return embeddingModel.embedAll(segments).content();
+        }
+        ensureLoaded();
+
+        List<String> keys = new ArrayList<>(segments.size());
+        Map<String, TextSegment> misses = new LinkedHashMap<>();
+        for (TextSegment segment : segments) {
+            String key = hash(segment.text());
+            keys.add(key);
+            if (!offsets.containsKey(key)) {
+                misses.putIfAbsent(key, segment);
+            }
+        }
+
+        Map<String, float[]> fresh = new java.util.HashMap<>();
+        if (misses.isEmpty()) {
+            apiCallsSaved.incrementAndGet();
+        } else {
+            List<String> missKeys = new ArrayList<>(misses.keySet());
+            List<Embedding> embedded = embeddingModel.embedAll(new ArrayList<>(misses.values())).content();
+            apiCalls.incrementAndGet();
+            chunksEmbedded.addAndGet(missKeys.size());
+            for (int i = 0; i < missKeys.size(); i++) {
+                fresh.put(missKeys.get(i), embedded.get(i).vector());
+            }
+            append(fresh);
+        }
+
+        if (fresh.keySet().containsAll(keys)) {
+            return keys.stream().map(key -> Embedding.from(fresh.get(key))).toList();
+        }
+
+        List<Embedding> result = new ArrayList<>(segments.size());
+        try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ)) {
+            for (String key : keys) {
+                float[] vector = fresh.get(key);
+                if (vector == null) {
+                    vector = read(channel, offsets.get(key));
+                    chunksReused.incrementAndGet();
+                }
+                result.add(Embedding.from(vector));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler vetores do cache de embeddings", e);
+        }
+        return result;
+    }
+
+    public void resetStats() {
+        chunksRequested.set(0);
+        chunksReused.set(0);
+        chunksEmbedded.set(0);
+        apiCalls.set(0);
+        apiCallsSaved.set(0);
+    }
+
+    public Stats stats() {
+        return new Stats(chunksRequested.get(), chunksReused.get(), chunksEmbedded.get(),
+                apiCalls.get(), apiCallsSaved.get());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (loaded) {
+                return;
+            }
+            try {
+                Files.createDirectories(storeFile.getParent());
+                if (Files.exists(storeFile)) {
+                    int recordSize = recordSize();
+                    long size = Files.size(storeFile);
+                    // Descarta um eventual registro incompleto no final (escrita interrompida)
+                    long complete = size - (size % recordSize);
+                    try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ)) {
+                        ByteBuffer hashBuffer = ByteBuffer.allocate(HASH_BYTES);
+                        for (long position = 0; position < complete; position += recordSize) {
+                            hashBuffer.clear();
+                            channel.read(hashBuffer, position);
+                            offsets.put(HexFormat.of().formatHex(hashBuffer.array()), position + HASH_BYTES);
+                        }
+                    }
+                    if (complete != size) {
+                        try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.WRITE)) {
+                            channel.truncate(complete);
+                        }
+                    }
+                }
+                logger.info("✅ Cache de embeddings carregado de {} ({} vetores)", storeFile, offsets.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao carregar cache de embeddings: " + storeFile, e);
+            }
+            loaded = true;
+        }
+    }
+
+    private void append(Map<String, float[]> vectors) {
+        synchronized (writeLock) {
+            try (FileChannel channel = FileChannel.open(storeFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long position = channel.size();
+                // Uma escrita anterior interrompida deixa um registro parcial: sem truncar, todos os registros
+                // seguintes ficariam desalinhados na próxima carga
+                long aligned = position - (position % recordSize());
+                if (aligned != position) {
+                    logger.warn("⚠️ Registro incompleto no final de {}; descartando {} bytes.", storeFile, position - aligned);
+                    channel.truncate(aligned);
+                    position = aligned;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(recordSize());
+                try {
+                    for (Map.Entry<String, float[]> entry : vectors.entrySet()) {
+                        if (offsets.containsKey(entry.getKey())) {
+                            continue;
+                        }
+                        float[] vector = entry.getValue();
+                        if (vector.length != dimension) {
+                            logger.warn("Vetor com dimensão {} diferente da configurada ({}); não será armazenado em cache.",
+                                    vector.length, dimension);
+                            continue;
+                        }
+                        buffer.clear();
+                        buffer.put(HexFormat.of().parseHex(entry.getKey()));
+                        for (float value : vector) {
+                            buffer.putFloat(value);
+                        }
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        offsets.put(entry.getKey(), position + HASH_BYTES);
+                        position += recordSize();
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    // Volta ao último registro completo antes de propagar a falha
+                    channel.truncate(position);
+                    throw e;
+                }
+            } catch (IOException e) {
+                // Falha de cache não deve interromper a ingestão
+                logger.warn("Não foi possível persistir embeddings no cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    private float[] read(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(dimension * Float.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Registro truncado no offset " + offset);
+            }
+        }
+        buffer.flip();
+        float[] vector = new float[dimension];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private int recordSize() {
+        return HASH_BYTES + dimension * Float.BYTES;
+    }
+
+    private static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
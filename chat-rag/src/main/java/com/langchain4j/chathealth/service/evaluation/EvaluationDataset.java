@@ -0,0 +1,54 @@
+package com.langchain4j.chathealth.service.evaluation;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perguntas rotuladas com os arquivos que deveriam ser recuperados.
+ * Aceita um array JSON ou JSONL (um caso por linha), por exemplo:
+ * {"question": "Qual o prazo de carência?", "expected_sources": ["tenant=acme/plano.pdf"], "context": {"tenant": "acme"}}
+ * O 'context' é opcional e vira pré-filtro, como em ChatRequest.context.
+ */
+public final class EvaluationDataset {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Case(@JsonProperty("question") String question,
+                       @JsonProperty("expected_sources") List<String> expectedSources,
+                       @JsonProperty("context") Map<String, Object> context) {
+    }
+
+    private EvaluationDataset() {
+    }
+
+    public static List<Case> load(Path path, ObjectMapper objectMapper) throws IOException {
+        String content = Files.readString(path).trim();
+        List<Case> cases;
+        if (content.startsWith("[")) {
+            cases = objectMapper.readValue(content, new TypeReference<List<Case>>() {});
+        } else {
+            cases = new ArrayList<>();
+            for (String line : content.split("\\R")) {
+                if (!line.isBlank()) {
+                    cases.add(objectMapper.readValue(line, Case.class));
+                }
+            }
+        }
+        List<Case> valid = cases.stream()
+                .filter(c -> c.question() != null && !c.question().isBlank()
+                        && c.expectedSources() != null && !c.expectedSources().isEmpty())
+                .toList();
+        if (valid.isEmpty()) {
+            throw new IOException("Nenhum caso válido (question + expected_sources) em " + path);
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,31 @@
+package com.langchain4j.chathealth.service.evaluation;
+
+import java.util.List;
+
+/**
+ * Resultado da varredura: uma linha por configuração e a recomendada (a de menor prompt, depois menor latência,
+ * entre as que atingem os mínimos de recall@k e MRR); null se nenhuma atinge.
+ */
+public record EvaluationReport(int cases,
+                               double minRecall,
+                               double minMrr,
+                               List<Row> rows,
+                               Row recommended) {
+
+    /**
+     * Uma configuração avaliada.
+     * @param chunking "index" (snapshot do índice atual) ou "tamanho:sobreposição" (corpus local reindexado em memória)
+     * @param hybridWeight peso do score léxico no rerank (0 = apenas vetorial)
+     */
+    public record Row(String chunking,
+                      int maxResults,
+                      double minScore,
+                      double hybridWeight,
+                      double recallAtK,
+                      double mrr,
+                      double avgPromptTokens,
+                      double avgPassages,
+                      double p50LatencyMs,
+                      double p95LatencyMs) {
+    }
+}
@@ -0,0 +1,408 @@
+package com.langchain4j.chathealth.service.evaluation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+import com.langchain4j.chathealth.service.indexer.PdfPageParser;
+import com.langchain4j.chathealth.service.indexer.SegmentAttributes;
+import com.langchain4j.chathealth.service.rag.ContextAssembler;
+import com.langchain4j.chathealth.service.search.RetrievalFilterFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Avaliação offline da recuperação: executa as perguntas rotuladas ('rag.evaluation.dataset') em uma grade de
+ * max-results (k), min-score, chunking e peso do rerank híbrido, e mede recall@k, MRR, tokens do prompt
+ * (estimados pelo ContextAssembler, como na API) e latência da recuperação.
+ * <ul>
+ *   <li>chunking "index": consulta o índice atual (snapshot apontado pelo alias), com o modelo de embedding da API;</li>
+ *   <li>chunking "tamanho:sobreposição": reindexa o corpus local ('rag.evaluation.corpus-path') em memória,
+ *       com o modelo da API ou o MiniLM local ('rag.evaluation.embedding-model: local', sem custo, scores diferentes).</li>
+ * </ul>
+ * As perguntas e os segmentos são embeddados uma única vez por modelo/chunking; recall, MRR e tokens das
+ * configurações da grade são calculados em paralelo ('rag.evaluation.parallelism', 0 = núcleos disponíveis).
+ * A latência é medida depois, numa passada sequencial: em paralelo as buscas disputariam CPU entre si e o
+ * p50 (critério de desempate da recomendação) dependeria do paralelismo e da posição na grade.
+ */
+@Profile("evaluator")
+@Service
+public class RetrievalEvaluator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetrievalEvaluator.class);
+
+    private static final String INDEX_CHUNKING = "index";
+    // Candidatos buscados por resultado final quando há rerank híbrido
+    private static final int HYBRID_CANDIDATES_PER_RESULT = 3;
+    private static final int EMBED_BATCH_SIZE = 64;
+
+    private record GridPoint(String chunking, int maxResults, double minScore, double hybridWeight) {
+    }
+
+    private record Corpus(EmbeddingStore<TextSegment> store, List<Embedding> questionEmbeddings) {
+    }
+
+    private record Quality(double recallAtK, double mrr, double avgPromptTokens, double avgPassages) {
+    }
+
+    private final EmbeddingModel embeddingModel;
+    private final ObjectProvider<EmbeddingStore<TextSegment>> indexStore;
+    private final ContextAssembler contextAssembler;
+    private final RetrievalFilterFactory filterFactory;
+    private final ObjectMapper objectMapper;
+
+    private final String datasetPath;
+    private final String corpusPath;
+    private final String reportPath;
+    private final boolean localEmbeddingModel;
+    private final List<Integer> maxResultsGrid;
+    private final List<Double> minScoreGrid;
+    private final List<String> chunkingGrid;
+    private final List<Double> hybridWeightGrid;
+    private final double minRecall;
+    private final double minMrr;
+    private final int parallelism;
+
+    public RetrievalEvaluator(EmbeddingModel embeddingModel,
+                              ObjectProvider<EmbeddingStore<TextSegment>> indexStore,
+                              ContextAssembler contextAssembler,
+                              RetrievalFilterFactory filterFactory,
+                              ObjectMapper objectMapper,
+                              @Value("${rag.evaluation.dataset:evaluation/dataset.jsonl}") String datasetPath,
+                              @Value("${rag.evaluation.corpus-path:}") String corpusPath,
+                              @Value("${rag.evaluation.report-path:evaluation-report.json}") String reportPath,
+                              @Value("${rag.evaluation.embedding-model:azure}") String embeddingModelName,
+                              @Value("${rag.evaluation.grid.max-results:3,5,8}") List<Integer> maxResultsGrid,
+                              @Value("${rag.evaluation.grid.min-scores:0.6,0.7,0.75,0.8}") List<Double> minScoreGrid,
+                              @Value("${rag.evaluation.grid.chunkings:index}") List<String> chunkingGrid,
+                              @Value("${rag.evaluation.grid.hybrid-weights:0,0.3}") List<Double> hybridWeightGrid,
+                              @Value("${rag.evaluation.min-recall:0.9}") double minRecall,
+                              @Value("${rag.evaluation.min-mrr:0.0}") double minMrr,
+                              @Value("${rag.evaluation.parallelism:0}") int parallelism) {
+        this.embeddingModel = embeddingModel;
+        this.indexStore = indexStore;
+        this.contextAssembler = contextAssembler;
+        this.filterFactory = filterFactory;
+        this.objectMapper = objectMapper;
+        this.datasetPath = datasetPath;
+        this.corpusPath = corpusPath;
+        this.reportPath = reportPath;
+        this.localEmbeddingModel = "local".equalsIgnoreCase(embeddingModelName);
+        this.maxResultsGrid = maxResultsGrid;
+        this.minScoreGrid = minScoreGrid;
+        this.chunkingGrid = chunkingGrid.stream().map(String::trim).toList();
+        this.hybridWeightGrid = hybridWeightGrid;
+        this.minRecall = minRecall;
+        this.minMrr = minMrr;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public EvaluationReport evaluate() throws IOException, InterruptedException {
+        List<EvaluationDataset.Case> cases = EvaluationDataset.load(Path.of(datasetPath), objectMapper);
+        logger.info("🚀 Avaliação da recuperação: {} perguntas, chunkings {}, k {}, min-score {}, híbrido {} (paralelismo: {})",
+                cases.size(), chunkingGrid, maxResultsGrid, minScoreGrid, hybridWeightGrid, parallelism);
+
+        List<String> questions = cases.stream().map(EvaluationDataset.Case::question).toList();
+        EmbeddingModel corpusModel = localEmbeddingModel ? new AllMiniLmL6V2EmbeddingModel() : embeddingModel;
+        Map<EmbeddingModel, List<Embedding>> questionEmbeddings = new LinkedHashMap<>();
+
+        // Cada chunking é preparado uma vez e reaproveitado por todos os pontos da grade
+        Map<String, Corpus> corpora = new LinkedHashMap<>();
+        for (String chunking : chunkingGrid) {
+            long start = System.currentTimeMillis();
+            EmbeddingStore<TextSegment> store;
+            EmbeddingModel model;
+            if (INDEX_CHUNKING.equals(chunking)) {
+                store = indexStore.getIfAvailable();
+                model = embeddingModel;
+                if (store == null) {
+                    logger.warn("⚠️ Azure AI Search não configurado; chunking 'index' ignorado.");
+                    continue;
+                }
+            } else {
+                model = corpusModel;
+                store = buildCorpus(chunking, model);
+            }
+            List<Embedding> embeddings = questionEmbeddings.computeIfAbsent(model, m -> embed(m, questions));
+            corpora.put(chunking, new Corpus(store, embeddings));
+            logger.info("✅ Chunking '{}' preparado em {} ms", chunking, System.currentTimeMillis() - start);
+        }
+
+        List<GridPoint> grid = new ArrayList<>();
+        for (String chunking : corpora.keySet()) {
+            for (int k : maxResultsGrid) {
+                for (double minScore : minScoreGrid) {
+                    for (double hybridWeight : hybridWeightGrid) {
+                        grid.add(new GridPoint(chunking, k, minScore, hybridWeight));
+                    }
+                }
+            }
+        }
+
+        List<Quality> qualities = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Quality>> futures = new ArrayList<>();
+            for (GridPoint point : grid) {
+                futures.add(executor.submit(() -> evaluateQuality(point, corpora.get(point.chunking()), cases)));
+            }
+            for (Future<Quality> future : futures) {
+                qualities.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao avaliar a grade: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Latência medida sem concorrência, um ponto da grade por vez
+        long latencyStart = System.currentTimeMillis();
+        List<EvaluationReport.Row> rows = new ArrayList<>(grid.size());
+        for (int i = 0; i < grid.size(); i++) {
+            GridPoint point = grid.get(i);
+            Quality quality = qualities.get(i);
+            long[] latencies = measureLatencies(point, corpora.get(point.chunking()), cases);
+            rows.add(new EvaluationReport.Row(point.chunking(), point.maxResults(), point.minScore(), point.hybridWeight(),
+                    quality.recallAtK(), quality.mrr(), quality.avgPromptTokens(), quality.avgPassages(),
+                    percentileMs(latencies, 0.50), percentileMs(latencies, 0.95)));
+        }
+        logger.info("✅ Latência de {} configurações medida em {} ms", grid.size(), System.currentTimeMillis() - latencyStart);
+
+        EvaluationReport.Row recommended = rows.stream()
+                .filter(row -> row.recallAtK() >= minRecall && row.mrr() >= minMrr)
+                .min(Comparator.comparingDouble(EvaluationReport.Row::avgPromptTokens)
+                        .thenComparingDouble(EvaluationReport.Row::p50LatencyMs))
+                .orElse(null);
+        EvaluationReport report = new EvaluationReport(cases.size(), minRecall, minMrr, rows, recommended);
+        log(report);
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(Path.of(reportPath).toFile(), report);
+        logger.info("Relatório gravado em {}", Path.of(reportPath).toAbsolutePath());
+        return report;
+    }
+
+    private Quality evaluateQuality(GridPoint point, Corpus corpus, List<EvaluationDataset.Case> cases) {
+        double recallSum = 0;
+        double reciprocalRankSum = 0;
+        long tokens = 0;
+        long passages = 0;
+        for (int i = 0; i < cases.size(); i++) {
+            EvaluationDataset.Case evaluationCase = cases.get(i);
+            List<Content> contents = retrieve(point, corpus.store(), corpus.questionEmbeddings().get(i), evaluationCase);
+            ContextAssembler.AssembledContext assembled = contents.isEmpty() ? null : contextAssembler.assemble(contents);
+
+            List<String> sources = contents.stream()
+                    .map(content -> SegmentAttributes.attribute(content.textSegment(), DocumentAttributes.SOURCE))
+                    .toList();
+            long found = evaluationCase.expectedSources().stream()
+                    .filter(expected -> sources.stream().anyMatch(source -> matches(source, expected)))
+                    .count();
+            recallSum += (double) found / evaluationCase.expectedSources().size();
+            for (int rank = 0; rank < sources.size(); rank++) {
+                String source = sources.get(rank);
+                if (evaluationCase.expectedSources().stream().anyMatch(expected -> matches(source, expected))) {
+                    reciprocalRankSum += 1.0 / (rank + 1);
+                    break;
+                }
+            }
+            if (assembled != null) {
+                tokens += assembled.estimatedTokens();
+                passages += assembled.passages();
+            }
+        }
+        int n = cases.size();
+        return new Quality(recallSum / n, reciprocalRankSum / n, (double) tokens / n, (double) passages / n);
+    }
+
+    // Mesmo caminho da API (busca e montagem do contexto), cronometrado por pergunta; devolve as latências ordenadas
+    private long[] measureLatencies(GridPoint point, Corpus corpus, List<EvaluationDataset.Case> cases) {
+        long[] latencies = new long[cases.size()];
+        for (int i = 0; i < cases.size(); i++) {
+            long start = System.nanoTime();
+            List<Content> contents = retrieve(point, corpus.store(), corpus.questionEmbeddings().get(i), cases.get(i));
+            if (!contents.isEmpty()) {
+                contextAssembler.assemble(contents);
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    /**
+     * Busca vetorial com o pré-filtro do caso; com peso híbrido, busca mais candidatos e reordena pela
+     * combinação do score vetorial com a fração dos termos da pergunta presentes no trecho.
+     */
+    private List<Content> retrieve(GridPoint point, EmbeddingStore<TextSegment> store, Embedding questionEmbedding,
+                                   EvaluationDataset.Case evaluationCase) {
+        boolean hybrid = point.hybridWeight() > 0;
+        Filter filter = filterFactory.fromContext(evaluationCase.context());
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(questionEmbedding)
+                .maxResults(hybrid ? point.maxResults() * HYBRID_CANDIDATES_PER_RESULT : point.maxResults())
+                .minScore(point.minScore())
+                .filter(filter)
+                .build();
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request).matches();
+        if (hybrid) {
+            Set<String> terms = terms(evaluationCase.question());
+            matches = matches.stream()
+                    .sorted(Comparator.comparingDouble((EmbeddingMatch<TextSegment> match) ->
+                            (1 - point.hybridWeight()) * match.score()
+                                    + point.hybridWeight() * lexicalScore(terms, match.embedded().text())).reversed())
+                    .limit(point.maxResults())
+                    .toList();
+        }
+        return matches.stream()
+                .map(match -> Content.from(match.embedded(), Map.of(
+                        ContentMetadata.SCORE, match.score(),
+                        ContentMetadata.EMBEDDING_ID, match.embeddingId())))
+                .toList();
+    }
+
+    /**
+     * Reindexa o corpus local em memória com o chunking "tamanho:sobreposição", com os mesmos atributos
+     * (source, page, chunk_index e atributos do caminho) gravados pelo indexador.
+     */
+    private EmbeddingStore<TextSegment> buildCorpus(String chunking, EmbeddingModel model) throws IOException {
+        if (corpusPath == null || corpusPath.isBlank()) {
+            throw new IllegalStateException("rag.evaluation.corpus-path é obrigatório para o chunking '" + chunking + "'");
+        }
+        String[] parts = chunking.split(":");
+        DocumentSplitter splitter = DocumentSplitters.recursive(Integer.parseInt(parts[0].trim()),
+                parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0);
+        PdfPageParser parser = new PdfPageParser();
+        Path root = Path.of(corpusPath);
+
+        List<TextSegment> segments = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(path -> path.toString().toLowerCase(Locale.ROOT).endsWith(".pdf")).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = root.relativize(file).toString().replace('\\', '/');
+            List<Document> pages;
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                pages = parser.parse(inputStream, DocumentAttributes.fromPath(name));
+            } catch (IOException e) {
+                logger.warn("⚠️ '{}' ignorado na avaliação: {}", name, e.getMessage());
+                continue;
+            }
+            int chunkIndex = 0;
+            for (Document page : pages) {
+                for (TextSegment segment : splitter.split(page)) {
+                    segment.metadata().remove("index");
+                    segment.metadata().put(DocumentAttributes.CHUNK_INDEX, String.valueOf(chunkIndex++));
+                    segments.add(segment);
+                }
+            }
+        }
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        List<Embedding> embeddings = embed(model, segments.stream().map(TextSegment::text).toList());
+        store.addAll(embeddings, segments);
+        logger.info("Chunking '{}': {} arquivos, {} segmentos", chunking, files.size(), segments.size());
+        return store;
+    }
+
+    private static List<Embedding> embed(EmbeddingModel model, List<String> texts) {
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += EMBED_BATCH_SIZE) {
+            List<TextSegment> batch = texts.subList(from, Math.min(from + EMBED_BATCH_SIZE, texts.size())).stream()
+                    .map(TextSegment::from)
+                    .toList();
+            embeddings.addAll(model.embedAll(batch).content());
+        }
+        return embeddings;
+    }
+
+    private void log(EvaluationReport report) {
+        logger.info(String.format("%-10s %4s %9s %7s %9s %6s %9s %9s %9s",
+                "chunking", "k", "min-score", "hybrid", "recall@k", "MRR", "tokens", "p50 ms", "p95 ms"));
+        for (EvaluationReport.Row row : report.rows()) {
+            logger.info(String.format("%-10s %4d %9.2f %7.2f %9.3f %6.3f %9.0f %9.2f %9.2f",
+                    row.chunking(), row.maxResults(), row.minScore(), row.hybridWeight(), row.recallAtK(),
+                    row.mrr(), row.avgPromptTokens(), row.p50LatencyMs(), row.p95LatencyMs()));
+        }
+        if (report.recommended() == null) {
+            logger.warn("⚠️ Nenhuma configuração atinge recall@k >= {} e MRR >= {}", minRecall, minMrr);
+        } else {
+            EvaluationReport.Row best = report.recommended();
+            logger.info("✅ Recomendado: chunking {}, k {}, min-score {}, híbrido {} (recall@k {}, MRR {}, ~{} tokens)",
+                    best.chunking(), best.maxResults(), best.minScore(), best.hybridWeight(),
+                    String.format("%.3f", best.recallAtK()), String.format("%.3f", best.mrr()),
+                    String.format("%.0f", best.avgPromptTokens()));
+        }
+    }
+
+    // O índice grava o caminho completo do blob; o dataset pode citar só o nome do arquivo
+    private static boolean matches(String source, String expected) {
+        return source != null && (source.equals(expected) || source.endsWith("/" + expected));
+    }
+
+    private static double lexicalScore(Set<String> terms, String text) {
+        if (terms.isEmpty()) {
+            return 0.0;
+        }
+        Set<String> textTerms = terms(text);
+        return (double) terms.stream().filter(textTerms::contains).count() / terms.size();
+    }
+
+    // Termos normalizados (sem acentos, minúsculos) com ao menos 3 letras, ignorando artigos e preposições curtas
+    private static Set<String> terms(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        Set<String> terms = new HashSet<>();
+        for (String term : normalized.split("[^a-z0-9]+")) {
+            if (term.length() >= 3) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Atributos filtráveis de um documento, derivados do caminho no storage.
+ * Diretórios no formato 'chave=valor' viram atributos (ex.: 'tenant=acme/plan=gold/document_type=faq/manual.pdf'),
+ * além do próprio nome do arquivo em 'source'. São gravados em metadata/attributes de cada segmento.
+ */
+public final class DocumentAttributes {
+
+    public static final String SOURCE = "source";
+    public static final String CHUNK_INDEX = "chunk_index";
+
+    private DocumentAttributes() {
+    }
+
+    public static Map<String, String> fromPath(String filename) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put(SOURCE, filename);
+        String[] parts = filename.split("/");
+        // O último trecho é o nome do arquivo; apenas diretórios carregam atributos
+        for (int i = 0; i < parts.length - 1; i++) {
+            int separator = parts[i].indexOf('=');
+            if (separator <= 0 || separator == parts[i].length() - 1) {
+                continue;
+            }
+            String key = parts[i].substring(0, separator).trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+            attributes.put(key, parts[i].substring(separator + 1).trim());
+        }
+        return attributes;
+    }
+}
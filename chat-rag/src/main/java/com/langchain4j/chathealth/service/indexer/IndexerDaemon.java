@@ -0,0 +1,98 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.IndexerService;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexador de longa duração: consulta o container periodicamente e processa apenas o delta
+ * através de {@link IndexerService#processIncremental()}.
+ * Origens com notificação de mudanças (diretório local) disparam um ciclo imediato, sem esperar o polling.
+ * Os ciclos nunca se sobrepõem (executor de thread única com atraso fixo).
+ */
+@Profile("indexer")
+@Component
+public class IndexerDaemon {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerDaemon.class);
+
+    private final IndexerService indexerService;
+    private final IndexerMetrics metrics;
+    private final long pollIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    public IndexerDaemon(IndexerService indexerService,
+                         IndexerMetrics metrics,
+                         @Value("${indexer.daemon.poll-interval-ms:10000}") long pollIntervalMs) {
+        this.indexerService = indexerService;
+        this.metrics = metrics;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        logger.info("🚀 Iniciando indexador em modo daemon (intervalo de {} ms)", pollIntervalMs);
+        // Thread não-daemon: mantém a JVM ativa enquanto o indexador estiver rodando
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "indexer-daemon");
+            thread.setDaemon(false);
+            return thread;
+        });
+        metrics.markStarted();
+        scheduler.scheduleWithFixedDelay(this::runCycle, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        indexerService.watchForChanges(this::triggerCycle);
+    }
+
+    private synchronized void triggerCycle() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            logger.debug("Mudança detectada na origem de documentos; antecipando ciclo de sincronização.");
+            scheduler.execute(this::runCycle);
+        }
+    }
+
+    void runCycle() {
+        metrics.cycleStarted();
+        try {
+            IndexerService.SyncResult result = indexerService.processIncremental();
+            metrics.cycleSucceeded(result.ingested(), result.deleted(), result.rehashed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.cycleFailed(e);
+        } catch (Exception e) {
+            // Uma falha pontual não derruba o daemon; o próximo ciclo tenta novamente
+            logger.error("Erro no ciclo incremental de indexação: {}", e.getMessage(), e);
+            metrics.cycleFailed(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        logger.info("Encerrando indexador em modo daemon...");
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        metrics.markStopped();
+        scheduler = null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas de progresso e atraso (lag) do indexador em modo daemon.
+ * O lag é o tempo decorrido desde o último ciclo concluído com sucesso,
+ * ou seja, o atraso máximo entre uma alteração no storage e sua disponibilidade na busca.
+ */
+@Component
+public class IndexerMetrics {
+
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong failedCycles = new AtomicLong();
+    private final AtomicLong filesIngested = new AtomicLong();
+    private final AtomicLong filesDeleted = new AtomicLong();
+    private final AtomicLong filesRehashed = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Instant startedAt;
+    private volatile Instant lastCycleStartedAt;
+    private volatile Instant lastSuccessAt;
+    private volatile long lastCycleDurationMs;
+    private volatile String lastError;
+
+    public void markStarted() {
+        running = true;
+        startedAt = Instant.now();
+    }
+
+    public void markStopped() {
+        running = false;
+    }
+
+    public void cycleStarted() {
+        lastCycleStartedAt = Instant.now();
+    }
+
+    public void cycleSucceeded(int ingested, int deleted, int rehashed) {
+        cycles.incrementAndGet();
+        filesIngested.addAndGet(ingested);
+        filesDeleted.addAndGet(deleted);
+        filesRehashed.addAndGet(rehashed);
+        lastSuccessAt = Instant.now();
+        lastCycleDurationMs = lastSuccessAt.toEpochMilli() - lastCycleStartedAt.toEpochMilli();
+        lastError = null;
+    }
+
+    public void cycleFailed(Exception e) {
+        cycles.incrementAndGet();
+        failedCycles.incrementAndGet();
+        lastCycleDurationMs = Instant.now().toEpochMilli() - lastCycleStartedAt.toEpochMilli();
+        lastError = e.getMessage();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Lag em milissegundos desde o último ciclo bem-sucedido (ou desde o início, se nenhum concluiu ainda).
+     */
+    public long lagMs() {
+        Instant reference = lastSuccessAt != null ? lastSuccessAt : startedAt;
+        return reference == null ? -1 : Instant.now().toEpochMilli() - reference.toEpochMilli();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("running", running);
+        snapshot.put("cycles", cycles.get());
+        snapshot.put("failedCycles", failedCycles.get());
+        snapshot.put("filesIngested", filesIngested.get());
+        snapshot.put("filesDeleted", filesDeleted.get());
+        snapshot.put("filesRehashed", filesRehashed.get());
+        snapshot.put("lastCycleStartedAt", lastCycleStartedAt != null ? lastCycleStartedAt.toString() : null);
+        snapshot.put("lastSuccessAt", lastSuccessAt != null ? lastSuccessAt.toString() : null);
+        snapshot.put("lastCycleDurationMs", lastCycleDurationMs);
+        snapshot.put("lagMs", lagMs());
+        snapshot.put("lastError", lastError);
+        return snapshot;
+    }
+}
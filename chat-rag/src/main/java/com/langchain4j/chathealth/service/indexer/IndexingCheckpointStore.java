@@ -0,0 +1,253 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Checkpoints duráveis por arquivo e por etapa da ingestão (download, parse, embedding, upload).
+ * Cada etapa concluída persiste seu artefato em disco (PDF baixado, segmentos, vetores) antes de
+ * avançar o checkpoint, de modo que uma execução reiniciada retoma exatamente do ponto em que parou.
+ * Todas as escritas são atômicas (arquivo temporário + move).
+ */
+@Profile("indexer")
+@Component
+public class IndexingCheckpointStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexingCheckpointStore.class);
+
+    public enum Stage { DOWNLOADED, PARSED, EMBEDDED, UPLOADED }
+
+    /**
+     * Estado persistido de um arquivo em ingestão.
+     */
+    public record Checkpoint(String filename, String version, String fileHash, Stage stage,
+                             int segmentCount, String updatedAt) {
+
+        public boolean reached(Stage target) {
+            return stage.ordinal() >= target.ordinal();
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final Path directory;
+
+    public IndexingCheckpointStore(@Value("${indexer.checkpoint.enabled:true}") boolean enabled,
+                                   @Value("${indexer.checkpoint.path:.cache/checkpoints}") String path) {
+        this.enabled = enabled;
+        this.directory = Paths.get(path);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checkpoint do arquivo, se existir e corresponder ao mesmo conteúdo (hash).
+     */
+    public Optional<Checkpoint> find(String filename, String fileHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path file = checkpointFile(filename);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            Checkpoint checkpoint = objectMapper.readValue(file.toFile(), Checkpoint.class);
+            if (fileHash != null && !fileHash.equals(checkpoint.fileHash())) {
+                logger.info("Checkpoint de '{}' pertence a outra versão do arquivo; descartando.", filename);
+                clear(filename);
+                return Optional.empty();
+            }
+            return Optional.of(checkpoint);
+        } catch (IOException e) {
+            logger.warn("Checkpoint corrompido para '{}'; reiniciando do zero. {}", filename, e.getMessage());
+            clear(filename);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lista todos os checkpoints pendentes (usado para reaproveitar o hash sem baixar o arquivo novamente).
+     */
+    public List<Checkpoint> findAll() {
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        if (!enabled || !Files.isDirectory(directory)) {
+            return checkpoints;
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".checkpoint.json")).toList()) {
+                try {
+                    checkpoints.add(objectMapper.readValue(file.toFile(), Checkpoint.class));
+                } catch (IOException e) {
+                    logger.warn("Ignorando checkpoint ilegível {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Não foi possível listar checkpoints em {}: {}", directory, e.getMessage());
+        }
+        return checkpoints;
+    }
+
+    public Checkpoint advance(String filename, String version, String fileHash, Stage stage, int segmentCount)
+            throws IOException {
+        Checkpoint checkpoint = new Checkpoint(filename, version, fileHash, stage, segmentCount, Instant.now().toString());
+        if (enabled) {
+            writeAtomically(checkpointFile(filename), out -> objectMapper.writeValue(out, checkpoint));
+        }
+        return checkpoint;
+    }
+
+    public Path downloadedFile(String filename) {
+        return directory.resolve(key(filename) + ".pdf");
+    }
+
+    public void saveDownload(String filename, InputStream inputStream) throws IOException {
+        writeAtomically(downloadedFile(filename), out -> inputStream.transferTo(out));
+    }
+
+    /**
+     * Segmento persistido: texto e metadados (atributos do documento e página).
+     */
+    public record StoredSegment(String text, Map<String, Object> metadata) {}
+
+    public void saveSegments(String filename, List<TextSegment> segments) throws IOException {
+        List<StoredSegment> stored = segments.stream()
+                .map(segment -> new StoredSegment(segment.text(), segment.metadata().toMap()))
+                .toList();
+        writeAtomically(segmentsFile(filename), out -> objectMapper.writeValue(out, stored));
+    }
+
+    /**
+     * Segmentos gravados na etapa PARSED. Um arquivo em outro formato (ex.: só o texto, sem os atributos)
+     * é rejeitado com IOException: o chamador descarta o checkpoint e reprocessa o arquivo.
+     */
+    public List<TextSegment> loadSegments(String filename) throws IOException {
+        List<TextSegment> segments = new ArrayList<>();
+        for (var node : objectMapper.readTree(segmentsFile(filename).toFile())) {
+            if (!node.isObject()) {
+                throw new IOException("Formato de segmentos não suportado no checkpoint de '" + filename + "'");
+            }
+            StoredSegment segment = objectMapper.treeToValue(node, StoredSegment.class);
+            segments.add(TextSegment.from(segment.text(),
+                    segment.metadata() == null ? new Metadata() : Metadata.from(segment.metadata())));
+        }
+        return segments;
+    }
+
+    /**
+     * Grava os vetores em formato binário: quantidade, dimensão e os floats em sequência.
+     */
+    public void saveEmbeddings(String filename, List<Embedding> embeddings) throws IOException {
+        writeAtomically(vectorsFile(filename), out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            int dimension = embeddings.isEmpty() ? 0 : embeddings.get(0).dimension();
+            data.writeInt(embeddings.size());
+            data.writeInt(dimension);
+            for (Embedding embedding : embeddings) {
+                for (float value : embedding.vector()) {
+                    data.writeFloat(value);
+                }
+            }
+            data.flush();
+        });
+    }
+
+    public List<Embedding> loadEmbeddings(String filename) throws IOException {
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(vectorsFile(filename))))) {
+            int count = data.readInt();
+            int dimension = data.readInt();
+            List<Embedding> embeddings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                float[] vector = new float[dimension];
+                for (int j = 0; j < dimension; j++) {
+                    vector[j] = data.readFloat();
+                }
+                embeddings.add(Embedding.from(vector));
+            }
+            return embeddings;
+        }
+    }
+
+    /**
+     * Remove o checkpoint e todos os artefatos intermediários do arquivo.
+     */
+    public void clear(String filename) {
+        for (Path file : List.of(checkpointFile(filename), downloadedFile(filename), segmentsFile(filename), vectorsFile(filename))) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Não foi possível remover {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private Path checkpointFile(String filename) {
+        return directory.resolve(key(filename) + ".checkpoint.json");
+    }
+
+    private Path segmentsFile(String filename) {
+        return directory.resolve(key(filename) + ".segments.json");
+    }
+
+    private Path vectorsFile(String filename) {
+        return directory.resolve(key(filename) + ".vectors.bin");
+    }
+
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private void writeAtomically(Path target, Writer writer) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writer.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Nome de arquivo estável e seguro para qualquer caminho de documento
+    private static String key(String filename) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(filename.getBytes(StandardCharsets.UTF_8));
+            String safe = filename.replaceAll("[^a-zA-Z0-9_-]", "_");
+            return (safe.length() > 60 ? safe.substring(0, 60) : safe) + "-" + HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
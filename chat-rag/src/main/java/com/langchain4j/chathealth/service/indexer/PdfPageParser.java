@@ -0,0 +1,47 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extrai o texto de um PDF página a página (PDFBox), gerando um Document por página com o
+ * atributo 'page', para que cada segmento saiba de qual página veio e possa ser filtrado por ela.
+ */
+public class PdfPageParser {
+
+    public static final String PAGE = "page";
+
+    /**
+     * @param attributes atributos do arquivo (ver {@link DocumentAttributes}) copiados para todas as páginas
+     */
+    public List<Document> parse(InputStream inputStream, Map<String, String> attributes) throws IOException {
+        List<Document> pages = new ArrayList<>();
+        try (PDDocument pdf = Loader.loadPDF(inputStream.readAllBytes())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                String text = stripper.getText(pdf);
+                if (text == null || text.isBlank()) {
+                    continue;
+                }
+                Metadata metadata = Metadata.from(attributes);
+                metadata.put(PAGE, String.valueOf(page));
+                pages.add(Document.from(text, metadata));
+            }
+        }
+        if (pages.isEmpty()) {
+            throw new IOException("PDF sem texto extraível");
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,49 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+
+import java.util.List;
+
+/**
+ * Leitura dos atributos de {@link DocumentAttributes} nos segmentos recuperados e do score de cada trecho.
+ * Os atributos voltam do Azure AI Search como texto; o valor é lido sem assumir o tipo.
+ */
+public final class SegmentAttributes {
+
+    private SegmentAttributes() {
+    }
+
+    public static String attribute(TextSegment segment, String key) {
+        Object value = segment.metadata().toMap().get(key);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Posição do segmento no arquivo; null em índices sem o atributo.
+     */
+    public static Integer chunkIndex(TextSegment segment) {
+        String value = attribute(segment, DocumentAttributes.CHUNK_INDEX);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static double score(Content content) {
+        Object score = content.metadata().get(ContentMetadata.SCORE);
+        return score instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    /**
+     * Score do trecho na posição informada; 0 quando há menos trechos.
+     */
+    public static double score(List<Content> contents, int index) {
+        return contents.size() <= index ? 0.0 : score(contents.get(index));
+    }
+}
@@ -0,0 +1,241 @@
+package com.langchain4j.chathealth.service.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.attribute;
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.chunkIndex;
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.score;
+
+/**
+ * Monta o contexto do prompt a partir dos trechos recuperados:
+ * 1. junta trechos vizinhos do mesmo arquivo (chunk_index consecutivo), removendo a sobreposição do chunking;
+ * 2. descarta quase-duplicatas (similaridade de Jaccard entre os conjuntos de palavras);
+ * 3. escolhe os melhores trechos por score até o orçamento de tokens ('rag.context.max-tokens');
+ * 4. emite os escolhidos em ordem estável (arquivo, posição), independente de variações de score,
+ *    para que o mesmo conjunto de trechos gere sempre o mesmo texto (cache de prompt do provedor).
+ * Tokens são estimados por caracteres ('rag.context.chars-per-token'), sem tokenizer.
+ */
+@Component
+public class ContextAssembler {
+
+    /**
+     * Contexto montado e as contagens usadas nas métricas.
+     */
+    public record AssembledContext(String text, int inputSegments, int passages, int estimatedTokens,
+                                   int inputEstimatedTokens) {
+    }
+
+    private record Passage(String source, int firstChunk, int lastChunk, String text, double score) {
+    }
+
+    private static final String SEPARATOR = "\n\n";
+
+    // Ordem de saída: arquivo e posição no arquivo; trechos sem posição vão para o fim, ordenados pelo texto
+    private static final Comparator<Passage> POSITION = Comparator
+            .comparing(Passage::source, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparingInt(Passage::firstChunk)
+            .thenComparing(Passage::text);
+
+    private final boolean enabled;
+    private final int maxTokens;
+    private final double charsPerToken;
+    private final double duplicateThreshold;
+    private final int maxOverlapChars;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong inputSegments = new AtomicLong();
+    private final AtomicLong outputPassages = new AtomicLong();
+    private final AtomicLong inputTokens = new AtomicLong();
+    private final AtomicLong outputTokens = new AtomicLong();
+    private final AtomicLong duplicatesDropped = new AtomicLong();
+    private final AtomicLong mergedSegments = new AtomicLong();
+    private final AtomicLong budgetDropped = new AtomicLong();
+
+    public ContextAssembler(@Value("${rag.context.enabled:true}") boolean enabled,
+                            @Value("${rag.context.max-tokens:1500}") int maxTokens,
+                            @Value("${rag.context.chars-per-token:4.0}") double charsPerToken,
+                            @Value("${rag.context.duplicate-threshold:0.85}") double duplicateThreshold,
+                            @Value("${rag.context.max-overlap-chars:${indexer.chunk-overlap:100}}") int maxOverlapChars) {
+        this.enabled = enabled;
+        this.maxTokens = maxTokens;
+        this.charsPerToken = charsPerToken;
+        this.duplicateThreshold = duplicateThreshold;
+        // Margem sobre a sobreposição configurada: o splitter corta em limites de frase/palavra
+        this.maxOverlapChars = maxOverlapChars * 2;
+    }
+
+    public AssembledContext assemble(List<Content> contents) {
+        String joined = contents.stream()
+                .map(content -> content.textSegment().text())
+                .collect(Collectors.joining(SEPARATOR));
+        int inputTokenEstimate = estimateTokens(joined);
+        if (!enabled) {
+            return record(new AssembledContext(joined, contents.size(), contents.size(), inputTokenEstimate, inputTokenEstimate));
+        }
+
+        List<Passage> merged = mergeAdjacent(contents);
+        mergedSegments.addAndGet(contents.size() - merged.size());
+
+        // Melhor score primeiro: ao comparar quase-duplicatas, fica a de maior relevância
+        List<Passage> byScore = new ArrayList<>(merged);
+        byScore.sort(Comparator.comparingDouble(Passage::score).reversed().thenComparing(POSITION));
+        List<Passage> selected = new ArrayList<>();
+        List<Set<String>> selectedWords = new ArrayList<>();
+        int usedTokens = 0;
+        for (Passage passage : byScore) {
+            Set<String> words = words(passage.text());
+            if (selectedWords.stream().anyMatch(other -> jaccard(words, other) >= duplicateThreshold)) {
+                duplicatesDropped.incrementAndGet();
+                continue;
+            }
+            int tokens = estimateTokens(passage.text()) + (selected.isEmpty() ? 0 : estimateTokens(SEPARATOR));
+            if (usedTokens + tokens > maxTokens) {
+                if (!selected.isEmpty()) {
+                    budgetDropped.incrementAndGet();
+                    continue;
+                }
+                // O melhor trecho sozinho excede o orçamento: entra truncado, para o prompt nunca ficar vazio
+                passage = truncate(passage, maxTokens);
+                tokens = estimateTokens(passage.text());
+            }
+            selected.add(passage);
+            selectedWords.add(words);
+            usedTokens += tokens;
+        }
+
+        selected.sort(POSITION);
+        String text = selected.stream().map(Passage::text).collect(Collectors.joining(SEPARATOR));
+        return record(new AssembledContext(text, contents.size(), selected.size(), estimateTokens(text), inputTokenEstimate));
+    }
+
+    public Map<String, Object> snapshot() {
+        long count = requests.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", count);
+        snapshot.put("maxTokens", maxTokens);
+        snapshot.put("avgInputSegments", count == 0 ? 0.0 : (double) inputSegments.get() / count);
+        snapshot.put("avgPassages", count == 0 ? 0.0 : (double) outputPassages.get() / count);
+        snapshot.put("avgInputEstimatedTokens", count == 0 ? 0 : inputTokens.get() / count);
+        snapshot.put("avgContextEstimatedTokens", count == 0 ? 0 : outputTokens.get() / count);
+        snapshot.put("tokenReduction", inputTokens.get() == 0 ? 0.0 : 1.0 - (double) outputTokens.get() / inputTokens.get());
+        snapshot.put("segmentsMerged", mergedSegments.get());
+        snapshot.put("duplicatesDropped", duplicatesDropped.get());
+        snapshot.put("droppedByBudget", budgetDropped.get());
+        return snapshot;
+    }
+
+    private AssembledContext record(AssembledContext context) {
+        requests.incrementAndGet();
+        inputSegments.addAndGet(context.inputSegments());
+        outputPassages.addAndGet(context.passages());
+        inputTokens.addAndGet(context.inputEstimatedTokens());
+        outputTokens.addAndGet(context.estimatedTokens());
+        return context;
+    }
+
+    /**
+     * Agrupa por arquivo e junta trechos com chunk_index consecutivo (ou repetido) num único trecho.
+     * Trechos sem source/chunk_index (índices antigos) passam inalterados.
+     */
+    private List<Passage> mergeAdjacent(List<Content> contents) {
+        Map<String, TreeMap<Integer, Passage>> bySource = new TreeMap<>();
+        List<Passage> unpositioned = new ArrayList<>();
+        for (Content content : contents) {
+            TextSegment segment = content.textSegment();
+            String source = attribute(segment, DocumentAttributes.SOURCE);
+            Integer chunk = chunkIndex(segment);
+            Passage passage = new Passage(source, chunk == null ? Integer.MAX_VALUE : chunk,
+                    chunk == null ? Integer.MAX_VALUE : chunk, segment.text(), score(content));
+            if (source == null || chunk == null) {
+                unpositioned.add(passage);
+            } else {
+                // Mesmo chunk recuperado duas vezes (ex.: em dois shards): fica o de maior score
+                bySource.computeIfAbsent(source, key -> new TreeMap<>())
+                        .merge(chunk, passage, (a, b) -> a.score() >= b.score() ? a : b);
+            }
+        }
+
+        List<Passage> merged = new ArrayList<>();
+        for (TreeMap<Integer, Passage> chunks : bySource.values()) {
+            Passage current = null;
+            for (Passage next : chunks.values()) {
+                if (current != null && next.firstChunk() == current.lastChunk() + 1) {
+                    current = new Passage(current.source(), current.firstChunk(), next.lastChunk(),
+                            concatWithoutOverlap(current.text(), next.text()), Math.max(current.score(), next.score()));
+                } else {
+                    if (current != null) {
+                        merged.add(current);
+                    }
+                    current = next;
+                }
+            }
+            if (current != null) {
+                merged.add(current);
+            }
+        }
+        merged.addAll(unpositioned);
+        return merged;
+    }
+
+    // Remove do início de 'next' o maior sufixo de 'previous' que ele repete (a sobreposição do splitter)
+    private String concatWithoutOverlap(String previous, String next) {
+        int max = Math.min(maxOverlapChars, Math.min(previous.length(), next.length()));
+        for (int length = max; length > 0; length--) {
+            if (previous.regionMatches(previous.length() - length, next, 0, length)) {
+                return previous + next.substring(length);
+            }
+        }
+        return previous + " " + next;
+    }
+
+    private Passage truncate(Passage passage, int tokens) {
+        int maxChars = (int) (tokens * charsPerToken);
+        if (passage.text().length() <= maxChars) {
+            return passage;
+        }
+        int cut = passage.text().lastIndexOf(' ', maxChars);
+        String text = passage.text().substring(0, cut > 0 ? cut : maxChars);
+        return new Passage(passage.source(), passage.firstChunk(), passage.lastChunk(), text, passage.score());
+    }
+
+    private int estimateTokens(String text) {
+        return (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>(Arrays.asList(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")));
+        words.remove("");
+        return words;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        int intersection = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+}
@@ -0,0 +1,18 @@
+package com.langchain4j.chathealth.service.rag;
+
+/**
+ * Etapa do pipeline RAG que não terminou dentro da sua fatia do prazo da requisição.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage, long budgetMs) {
+        super("Etapa '" + stage + "' excedeu o prazo de " + budgetMs + " ms");
+        this.stage = stage;
+    }
+
+    public String stage() {
+        return stage;
+    }
+}
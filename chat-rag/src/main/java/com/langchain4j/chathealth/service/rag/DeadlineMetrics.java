@@ -0,0 +1,59 @@
+package com.langchain4j.chathealth.service.rag;
+
+import org.springframework.stereotype.Component;
+import org.springframework.context.annotation.Profile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Requisições com prazo, estouros por etapa e respostas degradadas por tipo,
+ * para calibrar 'rag.deadline.*' (GET /api/v1/analytics/deadlines).
+ */
+@Profile("!indexer")
+@Component
+public class DeadlineMetrics {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final Map<String, AtomicLong> timeouts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> degradations = new ConcurrentHashMap<>();
+
+    public void started() {
+        requests.incrementAndGet();
+    }
+
+    public void completed() {
+        completed.incrementAndGet();
+    }
+
+    public void timedOut(String stage) {
+        timeouts.computeIfAbsent(stage, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void degraded(String degradation) {
+        degradations.computeIfAbsent(degradation, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long total = requests.get();
+        long degradedTotal = degradations.values().stream().mapToLong(AtomicLong::get).sum();
+        snapshot.put("requests", total);
+        snapshot.put("completed", completed.get());
+        snapshot.put("degraded", degradedTotal);
+        snapshot.put("degradedRate", total == 0 ? 0.0 : (double) degradedTotal / total);
+        snapshot.put("timeoutsByStage", counts(timeouts));
+        snapshot.put("degradationsByType", counts(degradations));
+        return snapshot;
+    }
+
+    private static Map<String, Long> counts(Map<String, AtomicLong> counters) {
+        Map<String, Long> counts = new TreeMap<>();
+        counters.forEach((key, count) -> counts.put(key, count.get()));
+        return counts;
+    }
+}
@@ -0,0 +1,64 @@
+package com.langchain4j.chathealth.service.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Orçamento de tempo por requisição: o prazo vem do header X-Request-Timeout-Ms (limitado a 'rag.deadline.max-ms')
+ * ou de 'rag.deadline.default-ms'. O embedding e a busca recebem frações fixas do orçamento; a geração usa o restante.
+ */
+@Profile("!indexer")
+@Component
+public class DeadlinePolicy {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private final boolean enabled;
+    private final long defaultMs;
+    private final long maxMs;
+    private final double embedShare;
+    private final double searchShare;
+    private final long minGenerationMs;
+
+    public DeadlinePolicy(@Value("${rag.deadline.enabled:true}") boolean enabled,
+                          @Value("${rag.deadline.default-ms:20000}") long defaultMs,
+                          @Value("${rag.deadline.max-ms:60000}") long maxMs,
+                          @Value("${rag.deadline.embed-share:0.15}") double embedShare,
+                          @Value("${rag.deadline.search-share:0.20}") double searchShare,
+                          @Value("${rag.deadline.min-generation-ms:1000}") long minGenerationMs) {
+        this.enabled = enabled;
+        this.defaultMs = defaultMs;
+        this.maxMs = maxMs;
+        this.embedShare = embedShare;
+        this.searchShare = searchShare;
+        this.minGenerationMs = minGenerationMs;
+    }
+
+    /**
+     * @param requestedMs prazo pedido pelo chamador (header); null ou não positivo usa o padrão
+     * @return null quando o controle de prazo está desativado
+     */
+    public RequestDeadline start(Long requestedMs) {
+        if (!enabled) {
+            return null;
+        }
+        long budget = requestedMs != null && requestedMs > 0 ? Math.min(requestedMs, maxMs) : defaultMs;
+        return RequestDeadline.after(budget);
+    }
+
+    public double embedShare() {
+        return embedShare;
+    }
+
+    public double searchShare() {
+        return searchShare;
+    }
+
+    /**
+     * Abaixo deste tempo restante a geração nem é iniciada: a resposta já sai degradada com os trechos.
+     */
+    public long minGenerationMs() {
+        return minGenerationMs;
+    }
+}
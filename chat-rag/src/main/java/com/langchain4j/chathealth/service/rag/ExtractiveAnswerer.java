@@ -0,0 +1,220 @@
+package com.langchain4j.chathealth.service.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.context.annotation.Profile;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+import com.langchain4j.chathealth.service.indexer.SegmentAttributes;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.attribute;
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.chunkIndex;
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.score;
+
+/**
+ * Caminho rápido sem LLM: quando o melhor trecho vem de uma fonte curada de FAQ ('document_type' em
+ * 'rag.extractive.document-types' ou 'source' com um dos prefixos de 'rag.extractive.source-prefixes'),
+ * tem score de ao menos 'rag.extractive.min-score' e se destaca do trecho seguinte (de qualquer arquivo, exceto
+ * os chunks vizinhos que formam o mesmo trecho) por 'rag.extractive.min-margin',
+ * a resposta é extraída do próprio trecho: o atributo 'answer' (resposta pré-gerada) ou, entre os pares
+ * "Pergunta:"/"Resposta:" do trecho, aquele cuja pergunta mais se parece com a do usuário (ao menos
+ * 'rag.extractive.min-question-overlap' das palavras). A resposta precisa estar inteira no trecho, terminando
+ * na "Pergunta:" seguinte; sem um par assim a pergunta segue para a geração.
+ */
+@Profile("!indexer")
+@Component
+public class ExtractiveAnswerer {
+
+    public static final String ANSWER = "answer";
+
+    // Rótulos "Pergunta:" e "Resposta:" no início de uma linha
+    private static final Pattern QA_LABEL = Pattern.compile("(?im)^[ \\t]*(pergunta|resposta)[ \\t]*:");
+
+    /**
+     * Resposta extraída, o arquivo de origem e a confiança (score do trecho).
+     */
+    public record ExtractiveAnswer(String answer, String source, double confidence, double margin) {
+    }
+
+    private final boolean enabled;
+    private final double minScore;
+    private final double minMargin;
+    private final double minQuestionOverlap;
+    private final List<String> documentTypes;
+    private final List<String> sourcePrefixes;
+
+    public ExtractiveAnswerer(@Value("${rag.extractive.enabled:false}") boolean enabled,
+                              @Value("${rag.extractive.min-score:0.92}") double minScore,
+                              @Value("${rag.extractive.min-margin:0.05}") double minMargin,
+                              @Value("${rag.extractive.min-question-overlap:0.5}") double minQuestionOverlap,
+                              @Value("${rag.extractive.document-types:faq}") List<String> documentTypes,
+                              @Value("${rag.extractive.source-prefixes:}") List<String> sourcePrefixes) {
+        this.enabled = enabled;
+        this.minScore = minScore;
+        this.minMargin = minMargin;
+        this.minQuestionOverlap = minQuestionOverlap;
+        this.documentTypes = documentTypes.stream()
+                .map(type -> type.trim().toLowerCase(Locale.ROOT)).filter(type -> !type.isEmpty()).toList();
+        this.sourcePrefixes = sourcePrefixes.stream().map(String::trim).filter(prefix -> !prefix.isEmpty()).toList();
+    }
+
+    /**
+     * @param question pergunta do usuário, comparada com as perguntas dos pares do trecho
+     * @param contents trechos recuperados, do maior para o menor score
+     */
+    public Optional<ExtractiveAnswer> answer(String question, List<Content> contents) {
+        if (!enabled || contents.isEmpty()) {
+            return Optional.empty();
+        }
+        Content top = contents.get(0);
+        TextSegment segment = top.textSegment();
+        String source = attribute(segment, DocumentAttributes.SOURCE);
+        if (!isCurated(segment, source)) {
+            return Optional.empty();
+        }
+        double topScore = score(top);
+        // A margem é medida contra o próximo trecho de qualquer arquivo, inclusive outra pergunta da mesma FAQ;
+        // só não contam o próprio chunk (repetido, ex.: em dois shards) e os vizinhos que o ContextAssembler uniria a ele
+        Set<Integer> samePassage = adjacentChunks(source, chunkIndex(segment), contents);
+        double secondScore = contents.stream().skip(1)
+                .filter(content -> !isSamePassage(content.textSegment(), source, samePassage))
+                .mapToDouble(SegmentAttributes::score)
+                .findFirst().orElse(0.0);
+        double margin = topScore - secondScore;
+        if (topScore < minScore || margin < minMargin) {
+            return Optional.empty();
+        }
+        return extract(question, segment).map(answer -> new ExtractiveAnswer(answer, source, topScore, margin));
+    }
+
+    /**
+     * Chunks do mesmo arquivo em sequência contínua com o do melhor trecho (vazio sem source/chunk_index).
+     */
+    private static Set<Integer> adjacentChunks(String source, Integer chunk, List<Content> contents) {
+        if (source == null || chunk == null) {
+            return Collections.emptySet();
+        }
+        Set<Integer> retrieved = new HashSet<>();
+        for (Content content : contents) {
+            Integer index = chunkIndex(content.textSegment());
+            if (index != null && source.equals(attribute(content.textSegment(), DocumentAttributes.SOURCE))) {
+                retrieved.add(index);
+            }
+        }
+        Set<Integer> run = new HashSet<>();
+        for (int index = chunk; retrieved.contains(index); index--) {
+            run.add(index);
+        }
+        for (int index = chunk + 1; retrieved.contains(index); index++) {
+            run.add(index);
+        }
+        return run;
+    }
+
+    private static boolean isSamePassage(TextSegment segment, String source, Set<Integer> samePassage) {
+        Integer chunk = chunkIndex(segment);
+        return chunk != null && samePassage.contains(chunk)
+                && source.equals(attribute(segment, DocumentAttributes.SOURCE));
+    }
+
+    private boolean isCurated(TextSegment segment, String source) {
+        String documentType = attribute(segment, "document_type");
+        if (documentType != null && documentTypes.contains(documentType.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        return source != null && sourcePrefixes.stream().anyMatch(source::startsWith);
+    }
+
+    private Optional<String> extract(String question, TextSegment segment) {
+        String preGenerated = attribute(segment, ANSWER);
+        if (preGenerated != null && !preGenerated.isBlank()) {
+            return Optional.of(preGenerated.trim());
+        }
+
+        Set<String> questionWords = words(question);
+        String best = null;
+        double bestOverlap = 0.0;
+        boolean tied = false;
+        for (QaPair pair : pairs(segment.text())) {
+            double overlap = overlap(questionWords, words(pair.question()));
+            if (overlap > bestOverlap) {
+                best = pair.answer();
+                bestOverlap = overlap;
+                tied = false;
+            } else if (overlap == bestOverlap && best != null) {
+                tied = true;
+            }
+        }
+        // Duas perguntas igualmente próximas: ambíguo, melhor gerar
+        if (best == null || tied || bestOverlap < minQuestionOverlap) {
+            return Optional.empty();
+        }
+        return Optional.of(best);
+    }
+
+    record QaPair(String question, String answer) {
+    }
+
+    /**
+     * Pares completos do trecho: "Pergunta:" seguida de "Resposta:" e de uma nova "Pergunta:". Uma resposta sem a
+     * pergunta antes (cauda do par anterior) ou que vai até o fim do trecho (possivelmente cortada) é descartada.
+     */
+    static List<QaPair> pairs(String text) {
+        List<String> labels = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        Matcher matcher = QA_LABEL.matcher(text);
+        while (matcher.find()) {
+            labels.add(matcher.group(1).toLowerCase(Locale.ROOT));
+            starts.add(matcher.start());
+            ends.add(matcher.end());
+        }
+        List<QaPair> pairs = new ArrayList<>();
+        for (int i = 0; i + 2 < labels.size(); i++) {
+            if (labels.get(i).equals("pergunta") && labels.get(i + 1).equals("resposta")
+                    && labels.get(i + 2).equals("pergunta")) {
+                String pairQuestion = text.substring(ends.get(i), starts.get(i + 1)).trim();
+                String answer = text.substring(ends.get(i + 1), starts.get(i + 2)).trim();
+                if (!pairQuestion.isEmpty() && !answer.isEmpty()) {
+                    pairs.add(new QaPair(pairQuestion, answer));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    // Fração das palavras da menor pergunta presentes na outra
+    private static double overlap(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        long common = a.stream().filter(b::contains).count();
+        return (double) common / Math.min(a.size(), b.size());
+    }
+
+    // Palavras com 3+ letras, minúsculas e sem acentos (descarta artigos e preposições curtas)
+    private static Set<String> words(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        Set<String> words = new HashSet<>();
+        for (String word : normalized.split("[^a-z0-9]+")) {
+            if (word.length() >= 3) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.langchain4j.chathealth.service.rag;
+
+/**
+ * Tier do modelo que responde a pergunta: FAST para consultas simples, STANDARD (GPT-4o) para raciocínio.
+ */
+public enum ModelTier { FAST, STANDARD }
@@ -0,0 +1,112 @@
+package com.langchain4j.chathealth.service.rag;
+
+import org.springframework.stereotype.Component;
+import org.springframework.context.annotation.Profile;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latência e consumo de tokens por tier de modelo, e a distribuição dos motivos da classificação,
+ * para calibrar os limiares de 'rag.routing.*'. Também conta as requisições e a latência total
+ * por caminho de atendimento (extrativo, gerado, degradado), para calibrar 'rag.extractive.*'.
+ */
+@Profile("!indexer")
+@Component
+public class ModelTierMetrics {
+
+    private static final int LATENCY_WINDOW = 500;
+
+    private final Map<ModelTier, TierStats> tiers = new EnumMap<>(ModelTier.class);
+    private final Map<String, AtomicLong> reasons = new ConcurrentHashMap<>();
+    private final Map<ServingPath, TierStats> paths = new EnumMap<>(ServingPath.class);
+
+    public ModelTierMetrics() {
+        for (ModelTier tier : ModelTier.values()) {
+            tiers.put(tier, new TierStats());
+        }
+        for (ServingPath path : ServingPath.values()) {
+            paths.put(path, new TierStats());
+        }
+    }
+
+    public void record(QuestionComplexityClassifier.Classification classification, long latencyMs,
+                       Integer inputTokens, Integer outputTokens) {
+        reasons.computeIfAbsent(classification.reason(), reason -> new AtomicLong()).incrementAndGet();
+        tiers.get(classification.tier()).record(latencyMs,
+                inputTokens == null ? 0 : inputTokens, outputTokens == null ? 0 : outputTokens);
+    }
+
+    /**
+     * @param latencyMs latência da requisição inteira (recuperação + geração, quando houver)
+     */
+    public void recordPath(ServingPath path, long latencyMs) {
+        paths.get(path).record(latencyMs, 0, 0);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        tiers.forEach((tier, stats) -> snapshot.put(tier.name(), stats.snapshot()));
+        Map<String, Long> reasonCounts = new LinkedHashMap<>();
+        reasons.forEach((reason, count) -> reasonCounts.put(reason, count.get()));
+        snapshot.put("reasons", reasonCounts);
+        Map<String, Object> pathStats = new LinkedHashMap<>();
+        paths.forEach((path, stats) -> pathStats.put(path.name(), stats.snapshot()));
+        snapshot.put("paths", pathStats);
+        return snapshot;
+    }
+
+    private static class TierStats {
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong inputTokens = new AtomicLong();
+        private final AtomicLong outputTokens = new AtomicLong();
+        private final AtomicLong totalLatencyMs = new AtomicLong();
+        private final long[] window = new long[LATENCY_WINDOW];
+        private int windowSize;
+        private int windowNext;
+
+        void record(long latencyMs, int input, int output) {
+            requests.incrementAndGet();
+            inputTokens.addAndGet(input);
+            outputTokens.addAndGet(output);
+            totalLatencyMs.addAndGet(latencyMs);
+            synchronized (window) {
+                window[windowNext] = latencyMs;
+                windowNext = (windowNext + 1) % window.length;
+                windowSize = Math.min(windowSize + 1, window.length);
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            long count = requests.get();
+            long[] sorted;
+            synchronized (window) {
+                sorted = Arrays.copyOf(window, windowSize);
+            }
+            Arrays.sort(sorted);
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("requests", count);
+            snapshot.put("avgLatencyMs", count == 0 ? 0 : totalLatencyMs.get() / count);
+            snapshot.put("p50LatencyMs", percentile(sorted, 0.50));
+            snapshot.put("p95LatencyMs", percentile(sorted, 0.95));
+            snapshot.put("inputTokens", inputTokens.get());
+            snapshot.put("outputTokens", outputTokens.get());
+            snapshot.put("avgInputTokens", count == 0 ? 0 : inputTokens.get() / count);
+            snapshot.put("avgOutputTokens", count == 0 ? 0 : outputTokens.get() / count);
+            return snapshot;
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.langchain4j.chathealth.service.rag;
+
+import dev.langchain4j.rag.content.Content;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.context.annotation.Profile;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+import static com.langchain4j.chathealth.service.indexer.SegmentAttributes.score;
+
+/**
+ * Escolhe o tier do modelo (FAST ou STANDARD/GPT-4o) por heurísticas locais, sem chamada ao modelo:
+ * tamanho da pergunta, palavras que indicam raciocínio ou consulta direta, e o formato dos scores da recuperação.
+ * Uma consulta direta tem um trecho claramente melhor que os demais (score alto e bem separado do segundo).
+ */
+@Profile("!indexer")
+@Component
+public class QuestionComplexityClassifier {
+
+    /**
+     * Tier escolhido e o motivo (exposto nas métricas para calibrar os limiares).
+     */
+    public record Classification(ModelTier tier, String reason) {
+    }
+
+    private final boolean enabled;
+    private final int simpleMaxChars;
+    private final int simpleMaxWords;
+    private final double simpleMinTopScore;
+    private final double simpleMinScoreSpread;
+    private final List<String> lookupKeywords;
+    private final List<String> complexKeywords;
+
+    public QuestionComplexityClassifier(@Value("${rag.routing.enabled:true}") boolean enabled,
+                                        @Value("${rag.routing.simple-max-chars:120}") int simpleMaxChars,
+                                        @Value("${rag.routing.simple-max-words:20}") int simpleMaxWords,
+                                        @Value("${rag.routing.simple-min-top-score:0.85}") double simpleMinTopScore,
+                                        @Value("${rag.routing.simple-min-score-spread:0.03}") double simpleMinScoreSpread,
+                                        @Value("${rag.routing.lookup-keywords:telefone,numero,endereco,horario,e-mail,email,site,contato,prazo,quando,onde}") List<String> lookupKeywords,
+                                        @Value("${rag.routing.complex-keywords:por que,porque,explique,compare,diferenca,analise,vantagens,desvantagens,como funciona,calcule,justifique,e se}") List<String> complexKeywords) {
+        this.enabled = enabled;
+        this.simpleMaxChars = simpleMaxChars;
+        this.simpleMaxWords = simpleMaxWords;
+        this.simpleMinTopScore = simpleMinTopScore;
+        this.simpleMinScoreSpread = simpleMinScoreSpread;
+        this.lookupKeywords = lookupKeywords.stream().map(QuestionComplexityClassifier::normalize).toList();
+        this.complexKeywords = complexKeywords.stream().map(QuestionComplexityClassifier::normalize).toList();
+    }
+
+    public Classification classify(String question, List<Content> contents) {
+        if (!enabled) {
+            return new Classification(ModelTier.STANDARD, "routing-disabled");
+        }
+        String normalized = normalize(question);
+        if (containsAny(normalized, complexKeywords)) {
+            return new Classification(ModelTier.STANDARD, "complex-keyword");
+        }
+        int words = normalized.isBlank() ? 0 : normalized.trim().split("\\s+").length;
+        if (question.length() > simpleMaxChars || words > simpleMaxWords) {
+            return new Classification(ModelTier.STANDARD, "long-question");
+        }
+
+        double top = score(contents, 0);
+        double second = score(contents, 1);
+        boolean lookup = containsAny(normalized, lookupKeywords);
+        // Consultas diretas toleram um trecho vencedor menos destacado
+        double minSpread = lookup ? simpleMinScoreSpread / 2 : simpleMinScoreSpread;
+        if (top < simpleMinTopScore) {
+            return new Classification(ModelTier.STANDARD, "low-top-score");
+        }
+        if (top - second < minSpread) {
+            return new Classification(ModelTier.STANDARD, "flat-score-spread");
+        }
+        return new Classification(ModelTier.FAST, lookup ? "lookup" : "short-clear-match");
+    }
+
+    private static boolean containsAny(String text, List<String> keywords) {
+        String padded = " " + text + " ";
+        return keywords.stream().anyMatch(keyword -> !keyword.isBlank() && padded.contains(" " + keyword + " "));
+    }
+
+    // Minúsculas, sem acentos e sem pontuação, para comparar com as palavras-chave
+    private static String normalize(String text) {
+        String withoutAccents = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return withoutAccents.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9\\s-]", " ").replaceAll("\\s+", " ").trim();
+    }
+}
@@ -1,5 +1,17 @@
 package com.langchain4j.chathealth.service.rag;
 
+import dev.langchain4j.service.Result;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.V;
+
+/**
+ * A recuperação é feita uma única vez em RagService (antes da escolha do tier do modelo);
+ * o assistente recebe a pergunta e o contexto já montado (ver ContextAssembler).
+ * O contexto vem antes da pergunta: perguntas sobre os mesmos trechos compartilham o prefixo do prompt,
+ * que pode ser reaproveitado pelo cache de prompt do provedor.
+ */
 public interface RagAssistant {
-String augmentedChat(String userMessage);
-}
\ No newline at end of file
+
+    @UserMessage("Answer using the following information:\n{{context}}\n\nQuestion: {{question}}")
+    Result<String> augmentedChat(@V("question") String question, @V("context") String context);
+}
@@ -0,0 +1,41 @@
+package com.langchain4j.chathealth.service.rag;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prazo absoluto de uma requisição, repartido entre as etapas do pipeline (embedding, busca e geração).
+ * Cada etapa recebe a sua fatia do orçamento total, limitada ao que ainda resta do prazo.
+ */
+public final class RequestDeadline {
+
+    private final long budgetMs;
+    private final long deadlineNanos;
+
+    private RequestDeadline(long budgetMs) {
+        this.budgetMs = budgetMs;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    }
+
+    public static RequestDeadline after(long budgetMs) {
+        return new RequestDeadline(budgetMs);
+    }
+
+    public long budgetMs() {
+        return budgetMs;
+    }
+
+    public long remainingMs() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Fatia do orçamento total para uma etapa, sem ultrapassar o prazo restante.
+     */
+    public long stageBudgetMs(double share) {
+        return Math.min(remainingMs(), Math.round(budgetMs * share));
+    }
+}
@@ -0,0 +1,31 @@
+package com.langchain4j.chathealth.service.rag;
+
+/**
+ * Caminho que atendeu a pergunta, com os valores de 'source' e 'tool_used' devolvidos em ChatResponse.
+ */
+public enum ServingPath {
+
+    // Trecho de FAQ curada devolvido diretamente, sem chamada ao modelo (ver ExtractiveAnswerer)
+    EXTRACTIVE("faq", "extractive_faq"),
+    // Resposta gerada pelo modelo a partir dos trechos recuperados
+    GENERATED("rag", "rag_service"),
+    // Prazo estourado: apenas os trechos recuperados, ou nenhum
+    DEGRADED("rag", "rag_passages"),
+    NO_CONTENT("rag", "rag_service");
+
+    private final String source;
+    private final String toolUsed;
+
+    ServingPath(String source, String toolUsed) {
+        this.source = source;
+        this.toolUsed = toolUsed;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public String toolUsed() {
+        return toolUsed;
+    }
+}
@@ -0,0 +1,262 @@
+package com.langchain4j.chathealth.service.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Distribui chamadas entre vários deployments do mesmo modelo.
+ * O primário é sorteado com probabilidade proporcional a peso × cota restante / latência EWMA;
+ * deployments que responderam 429 ficam fora da rotação durante o cooldown.
+ * Se o primário não responde dentro do percentil configurado da sua própria latência, uma requisição
+ * de hedge vai para o próximo deployment: a primeira resposta vence e a outra é cancelada e descartada.
+ * Erros antes do hedge fazem failover imediato para o próximo deployment.
+ */
+public class DeploymentRouter<M> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeploymentRouter.class);
+
+    /**
+     * Um deployment roteável e suas estatísticas.
+     */
+    public record Deployment<M>(String name, M model, double weight, DeploymentStats stats) {
+    }
+
+    /**
+     * Parâmetros do hedging.
+     */
+    public record HedgePolicy(boolean enabled, double percentile, long minDelayMs, long initialDelayMs,
+                              int minSamples, long throttleCooldownMs) {
+    }
+
+    private final String kind;
+    private final List<Deployment<M>> deployments;
+    private final HedgePolicy policy;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DeploymentRouter(String kind, List<Deployment<M>> deployments, HedgePolicy policy) {
+        if (deployments.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum deployment configurado para " + kind);
+        }
+        this.kind = kind;
+        this.deployments = List.copyOf(deployments);
+        this.policy = policy;
+    }
+
+    public M primaryModel() {
+        return deployments.get(0).model();
+    }
+
+    public <R> R execute(Function<M, R> call) {
+        List<Deployment<M>> ranked = rank();
+        ranked.get(0).stats().selectedAsPrimary();
+        if (!policy.enabled() || ranked.size() == 1) {
+            return executeWithFailover(ranked, call);
+        }
+        return executeHedged(ranked, call);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Deployment<M> deployment : deployments) {
+            snapshot.put(deployment.name(), deployment.stats().snapshot());
+        }
+        return snapshot;
+    }
+
+    private <R> R executeWithFailover(List<Deployment<M>> ranked, Function<M, R> call) {
+        RuntimeException lastError = null;
+        for (Deployment<M> deployment : ranked) {
+            deployment.stats().started();
+            long start = System.nanoTime();
+            try {
+                R result = call.apply(deployment.model());
+                deployment.stats().recordLatency(elapsedMs(start));
+                return result;
+            } catch (RuntimeException e) {
+                // Chamada cancelada pelo prazo da requisição: não há para quem fazer failover
+                if (isInterruption(e)) {
+                    throw e;
+                }
+                lastError = e;
+                recordFailure(deployment, e);
+            }
+        }
+        throw lastError;
+    }
+
+    private <R> R executeHedged(List<Deployment<M>> ranked, Function<M, R> call) {
+        CompletionService<R> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<R>, Deployment<M>> inFlight = new HashMap<>();
+        Deployment<M> primary = ranked.get(0);
+        int next = 0;
+        submit(completion, ranked.get(next++), call, inFlight);
+
+        boolean hedged = false;
+        Throwable lastError = null;
+        try {
+            while (!inFlight.isEmpty()) {
+                Future<R> done = hedged || next >= ranked.size()
+                        ? completion.take()
+                        : completion.poll(hedgeDelayMs(primary), TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    hedged = true;
+                    primary.stats().hedgeTriggered();
+                    logger.debug("Hedge em {}: '{}' excedeu {} ms, enviando para '{}'",
+                            kind, primary.name(), hedgeDelayMs(primary), ranked.get(next).name());
+                    submit(completion, ranked.get(next++), call, inFlight);
+                    continue;
+                }
+                Deployment<M> deployment = inFlight.remove(done);
+                try {
+                    R result = done.get();
+                    if (hedged) {
+                        deployment.stats().raced(true);
+                        cancelLosers(inFlight);
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause();
+                    recordFailure(deployment, e.getCause());
+                    // Failover: se não há outra tentativa em andamento, segue para o próximo deployment
+                    if (inFlight.isEmpty() && next < ranked.size()) {
+                        submit(completion, ranked.get(next++), call, inFlight);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // O prazo da requisição não diz nada sobre os deployments: cancela sem registrar latência nem corrida
+            Thread.currentThread().interrupt();
+            inFlight.keySet().forEach(future -> future.cancel(true));
+            inFlight.clear();
+            throw new IllegalStateException("Chamada ao modelo interrompida", e);
+        }
+        if (lastError instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new IllegalStateException("Todos os deployments de " + kind + " falharam", lastError);
+    }
+
+    private <R> void submit(CompletionService<R> completion, Deployment<M> deployment, Function<M, R> call,
+                            Map<Future<R>, Deployment<M>> inFlight) {
+        deployment.stats().started();
+        long start = System.nanoTime();
+        Future<R> future = completion.submit(() -> {
+            R result = call.apply(deployment.model());
+            deployment.stats().recordLatency(elapsedMs(start));
+            return result;
+        });
+        inFlight.put(future, deployment);
+    }
+
+    // O perdedor é cancelado sem amostra de latência: o tempo até o cancelamento é do vencedor, não dele,
+    // e entraria na janela como uma resposta rápida, baixando o EWMA e o percentil que define o atraso do hedge
+    private <R> void cancelLosers(Map<Future<R>, Deployment<M>> inFlight) {
+        for (Map.Entry<Future<R>, Deployment<M>> loser : inFlight.entrySet()) {
+            loser.getKey().cancel(true);
+            loser.getValue().stats().raced(false);
+        }
+        inFlight.clear();
+    }
+
+    private void recordFailure(Deployment<M> deployment, Throwable error) {
+        boolean rateLimited = isRateLimited(error);
+        deployment.stats().recordError(rateLimited, policy.throttleCooldownMs());
+        logger.warn("⚠️ Falha no deployment '{}' ({}){}: {}", deployment.name(), kind,
+                rateLimited ? " [429, em cooldown]" : "", error.getMessage());
+    }
+
+    private long hedgeDelayMs(Deployment<M> primary) {
+        if (primary.stats().samples() < policy.minSamples()) {
+            return policy.initialDelayMs();
+        }
+        return Math.max(policy.minDelayMs(), primary.stats().percentileMs(policy.percentile()));
+    }
+
+    /**
+     * Ordena os deployments por sorteio ponderado sem reposição; os que estão em cooldown vão para o fim.
+     */
+    private List<Deployment<M>> rank() {
+        List<Deployment<M>> available = new ArrayList<>();
+        List<Deployment<M>> coolingDown = new ArrayList<>();
+        for (Deployment<M> deployment : deployments) {
+            (deployment.stats().isCoolingDown() ? coolingDown : available).add(deployment);
+        }
+        List<Deployment<M>> ranked = new ArrayList<>(deployments.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!available.isEmpty()) {
+            double total = 0;
+            double[] scores = new double[available.size()];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = score(available.get(i));
+                total += scores[i];
+            }
+            double pick = random.nextDouble() * total;
+            int chosen = scores.length - 1;
+            for (int i = 0; i < scores.length; i++) {
+                pick -= scores[i];
+                if (pick <= 0) {
+                    chosen = i;
+                    break;
+                }
+            }
+            ranked.add(available.remove(chosen));
+        }
+        ranked.addAll(coolingDown);
+        return ranked;
+    }
+
+    // Deployments ainda sem amostras recebem a menor latência possível para serem explorados
+    private double score(Deployment<M> deployment) {
+        double latency = Math.max(1.0, deployment.stats().ewmaMs());
+        double quota = Math.max(0.01, deployment.stats().remainingQuota());
+        return deployment.weight() * quota / latency;
+    }
+
+    private static boolean isRateLimited(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (cause.getClass().getSimpleName().contains("RateLimit") || (message != null && message.contains("429"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Interrupção da thread (prazo da requisição estourado). SDKs que convertem a interrupção em
+     * InterruptedIOException ou ClosedByInterruptException limpam a flag, por isso a causa também é verificada.
+     */
+    private static boolean isInterruption(Throwable error) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException
+                    || cause instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,132 @@
+package com.langchain4j.chathealth.service.routing;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latência observada, cota consumida e resultado dos hedges de um deployment.
+ * A latência é mantida como EWMA (para o balanceamento) e numa janela circular (para o percentil do hedge).
+ */
+public class DeploymentStats {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final int requestsPerMinute;
+    private final long[] window;
+    private int windowSize;
+    private int windowNext;
+    private double ewmaMs;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong primaryRequests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong hedgesTriggered = new AtomicLong();
+    private final AtomicLong races = new AtomicLong();
+    private final AtomicLong wins = new AtomicLong();
+
+    private volatile long cooldownUntil;
+    private long currentMinute;
+    private int requestsThisMinute;
+
+    public DeploymentStats(int requestsPerMinute, int latencyWindow) {
+        this.requestsPerMinute = requestsPerMinute;
+        this.window = new long[Math.max(1, latencyWindow)];
+    }
+
+    public synchronized void started() {
+        requests.incrementAndGet();
+        long minute = System.currentTimeMillis() / 60_000;
+        if (minute != currentMinute) {
+            currentMinute = minute;
+            requestsThisMinute = 0;
+        }
+        requestsThisMinute++;
+    }
+
+    public synchronized void recordLatency(long latencyMs) {
+        window[windowNext] = latencyMs;
+        windowNext = (windowNext + 1) % window.length;
+        windowSize = Math.min(windowSize + 1, window.length);
+        ewmaMs = ewmaMs == 0 ? latencyMs : EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * ewmaMs;
+    }
+
+    public void recordError(boolean rateLimited, long cooldownMs) {
+        errors.incrementAndGet();
+        if (rateLimited) {
+            throttled.incrementAndGet();
+            cooldownUntil = System.currentTimeMillis() + cooldownMs;
+        }
+    }
+
+    public void selectedAsPrimary() {
+        primaryRequests.incrementAndGet();
+    }
+
+    public void hedgeTriggered() {
+        hedgesTriggered.incrementAndGet();
+    }
+
+    public void raced(boolean won) {
+        races.incrementAndGet();
+        if (won) {
+            wins.incrementAndGet();
+        }
+    }
+
+    public boolean isCoolingDown() {
+        return System.currentTimeMillis() < cooldownUntil;
+    }
+
+    public synchronized double ewmaMs() {
+        return ewmaMs;
+    }
+
+    public synchronized int samples() {
+        return windowSize;
+    }
+
+    public synchronized long percentileMs(double percentile) {
+        if (windowSize == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(window, windowSize);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * windowSize) - 1;
+        return sorted[Math.max(0, Math.min(index, windowSize - 1))];
+    }
+
+    /**
+     * Fração da cota por minuto ainda disponível (1.0 quando o limite não é conhecido).
+     */
+    public synchronized double remainingQuota() {
+        if (requestsPerMinute <= 0) {
+            return 1.0;
+        }
+        int used = System.currentTimeMillis() / 60_000 == currentMinute ? requestsThisMinute : 0;
+        return Math.max(0.0, 1.0 - (double) used / requestsPerMinute);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long primaries = primaryRequests.get();
+        snapshot.put("requests", requests.get());
+        snapshot.put("primaryRequests", primaries);
+        snapshot.put("errors", errors.get());
+        snapshot.put("throttled", throttled.get());
+        snapshot.put("coolingDown", isCoolingDown());
+        snapshot.put("ewmaLatencyMs", Math.round(ewmaMs()));
+        snapshot.put("p95LatencyMs", percentileMs(0.95));
+        snapshot.put("p99LatencyMs", percentileMs(0.99));
+        snapshot.put("remainingQuota", remainingQuota());
+        snapshot.put("hedgesTriggered", hedgesTriggered.get());
+        // Fração das requisições em que este deployment era o primário e estourou o atraso de hedge
+        snapshot.put("hedgeRate", primaries == 0 ? 0.0 : (double) hedgesTriggered.get() / primaries);
+        snapshot.put("races", races.get());
+        snapshot.put("wins", wins.get());
+        snapshot.put("winRate", races.get() == 0 ? 0.0 : (double) wins.get() / races.get());
+        return snapshot;
+    }
+}
@@ -0,0 +1,26 @@
+package com.langchain4j.chathealth.service.routing;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro dos roteadores de deployments, para expor latência, hedge rate e win rate por deployment.
+ */
+@Component
+public class ModelRoutingMetrics {
+
+    private final Map<String, DeploymentRouter<?>> routers = new ConcurrentHashMap<>();
+
+    public void register(String kind, DeploymentRouter<?> router) {
+        routers.put(kind, router);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        routers.forEach((kind, router) -> snapshot.put(kind, router.snapshot()));
+        return snapshot;
+    }
+}
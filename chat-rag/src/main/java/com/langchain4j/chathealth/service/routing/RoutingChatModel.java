@@ -0,0 +1,35 @@
+package com.langchain4j.chathealth.service.routing;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.util.Set;
+
+/**
+ * ChatModel que encaminha cada chamada para um dos deployments configurados via {@link DeploymentRouter}.
+ * Parâmetros padrão e listeners continuam sendo aplicados por cada deployment.
+ */
+public class RoutingChatModel implements ChatModel {
+
+    private final DeploymentRouter<ChatModel> router;
+
+    public RoutingChatModel(DeploymentRouter<ChatModel> router) {
+        this.router = router;
+    }
+
+    public DeploymentRouter<ChatModel> router() {
+        return router;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        return router.execute(model -> model.chat(chatRequest));
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return router.primaryModel().supportedCapabilities();
+    }
+}
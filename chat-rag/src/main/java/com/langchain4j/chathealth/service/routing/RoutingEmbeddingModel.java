@@ -0,0 +1,35 @@
+package com.langchain4j.chathealth.service.routing;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * EmbeddingModel que encaminha cada chamada para um dos deployments configurados via {@link DeploymentRouter}.
+ * Todos os deployments devem servir o mesmo modelo (e dimensão), já que os vetores são comparados entre si.
+ */
+public class RoutingEmbeddingModel implements EmbeddingModel {
+
+    private final DeploymentRouter<EmbeddingModel> router;
+
+    public RoutingEmbeddingModel(DeploymentRouter<EmbeddingModel> router) {
+        this.router = router;
+    }
+
+    public DeploymentRouter<EmbeddingModel> router() {
+        return router;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return router.execute(model -> model.embedAll(textSegments));
+    }
+
+    @Override
+    public int dimension() {
+        return router.primaryModel().dimension();
+    }
+}
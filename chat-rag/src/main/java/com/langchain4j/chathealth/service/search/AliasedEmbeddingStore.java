@@ -0,0 +1,94 @@
+package com.langchain4j.chathealth.service.search;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * EmbeddingStore que sempre delega para o índice físico apontado pelo alias no momento da chamada.
+ * Assim a API passa a consultar o novo índice logo após a troca do ponteiro, sem reinício,
+ * e nunca enxerga um índice ainda em construção.
+ */
+public class AliasedEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private final String logicalName;
+    private final IndexAliasService indexAliasService;
+    private final Function<String, EmbeddingStore<TextSegment>> storeFactory;
+    private final Map<String, EmbeddingStore<TextSegment>> stores = new ConcurrentHashMap<>();
+
+    public AliasedEmbeddingStore(String logicalName,
+                                 IndexAliasService indexAliasService,
+                                 Function<String, EmbeddingStore<TextSegment>> storeFactory) {
+        this.logicalName = logicalName;
+        this.indexAliasService = indexAliasService;
+        this.storeFactory = storeFactory;
+    }
+
+    private EmbeddingStore<TextSegment> current() {
+        return stores.computeIfAbsent(indexAliasService.resolve(logicalName), storeFactory);
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return current().add(embedding);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        current().add(id, embedding);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        return current().add(embedding, textSegment);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return current().addAll(embeddings);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> textSegments) {
+        return current().addAll(embeddings, textSegments);
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments) {
+        current().addAll(ids, embeddings, textSegments);
+    }
+
+    @Override
+    public void remove(String id) {
+        current().remove(id);
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        current().removeAll(ids);
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        current().removeAll(filter);
+    }
+
+    @Override
+    public void removeAll() {
+        current().removeAll();
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        return current().search(request);
+    }
+}
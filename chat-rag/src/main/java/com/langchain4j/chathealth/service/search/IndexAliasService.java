@@ -0,0 +1,179 @@
+package com.langchain4j.chathealth.service.search;
+
+import com.azure.core.exception.ResourceNotFoundException;
+import com.azure.search.documents.SearchClient;
+import com.azure.search.documents.indexes.SearchIndexClient;
+import com.azure.search.documents.indexes.models.SearchField;
+import com.azure.search.documents.indexes.models.SearchFieldDataType;
+import com.azure.search.documents.indexes.models.SearchIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ponteiro "alias -> índice físico" usado na reconstrução blue/green.
+ * O nome configurado em 'azure.search.index-name' é o alias lógico; o índice físico ativo
+ * fica registrado em um pequeno índice de ponteiros no próprio Azure AI Search, já que aliases
+ * nativos ainda são preview. Sem ponteiro registrado, o alias resolve para ele mesmo.
+ * Os ponteiros de todos os shards ficam num único documento: são trocados por uma única escrita e
+ * resolvidos juntos, então uma busca nunca combina shards de versões diferentes.
+ * A resolução é cacheada e revalidada a cada 'azure.search.alias-refresh-ms'.
+ */
+@Service
+public class IndexAliasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexAliasService.class);
+
+    private static final String INDEX_NAMES = "index_names";
+
+    private record CachedAliases(Map<String, String> physicalNames, long resolvedAt) {}
+
+    // Resolvido sob demanda para não criar o cliente do Azure durante o startup
+    private final ObjectProvider<SearchIndexClient> searchIndexClient;
+    private final ShardRouter shardRouter;
+    private final String groupName;
+    private final String aliasIndexName;
+    private final long refreshMs;
+    private volatile CachedAliases cache;
+
+    public IndexAliasService(ObjectProvider<SearchIndexClient> searchIndexClient,
+                             ShardRouter shardRouter,
+                             @Value("${azure.search.index-name:}") String groupName,
+                             @Value("${azure.search.alias-index-name:${azure.search.index-name:}-aliases}") String aliasIndexName,
+                             @Value("${azure.search.alias-refresh-ms:30000}") long refreshMs) {
+        this.searchIndexClient = searchIndexClient;
+        this.shardRouter = shardRouter;
+        this.groupName = groupName;
+        this.aliasIndexName = aliasIndexName;
+        this.refreshMs = refreshMs;
+    }
+
+    /**
+     * Nome do índice físico atualmente apontado pelo alias.
+     */
+    public String resolve(String logicalName) {
+        return resolveAll().getOrDefault(logicalName, logicalName);
+    }
+
+    /**
+     * Índices físicos de todos os shards (alias -> índice), lidos de uma única vez: use este snapshot
+     * quando a mesma operação envolve mais de um shard.
+     */
+    public Map<String, String> resolveAll() {
+        long now = System.currentTimeMillis();
+        CachedAliases cached = cache;
+        if (cached != null && now - cached.resolvedAt() < refreshMs) {
+            return cached.physicalNames();
+        }
+
+        Map<String, String> physicalNames;
+        try {
+            physicalNames = lookupAll();
+        } catch (Exception e) {
+            // Falha transitória: mantém o último valor conhecido para não apontar para um índice errado
+            logger.warn("Não foi possível resolver os aliases de '{}': {}", groupName, e.getMessage());
+            physicalNames = cached != null ? cached.physicalNames() : identity();
+        }
+        if (cached != null) {
+            for (Map.Entry<String, String> entry : physicalNames.entrySet()) {
+                String previous = cached.physicalNames().get(entry.getKey());
+                if (previous != null && !previous.equals(entry.getValue())) {
+                    logger.info("🔀 Alias '{}' agora aponta para '{}' (antes: '{}')", entry.getKey(), entry.getValue(), previous);
+                }
+            }
+        }
+        cache = new CachedAliases(physicalNames, now);
+        return physicalNames;
+    }
+
+    /**
+     * Troca atômica dos ponteiros de todos os shards: uma única escrita de documento no índice de aliases.
+     */
+    public void switchAll(Map<String, String> physicalNames) {
+        ensureAliasIndexExists();
+        Map<String, String> merged = new LinkedHashMap<>(resolveAll());
+        merged.putAll(physicalNames);
+        List<String> entries = new ArrayList<>();
+        merged.forEach((alias, physical) -> entries.add(alias + "=" + physical));
+
+        Map<String, Object> pointer = new java.util.HashMap<>();
+        pointer.put("id", key(groupName));
+        pointer.put("logical_name", groupName);
+        pointer.put(INDEX_NAMES, entries);
+        pointer.put("updated_at", Instant.now().toString());
+        searchIndexClient.getObject().getSearchClient(aliasIndexName).mergeOrUploadDocuments(List.of(pointer));
+        cache = new CachedAliases(Map.copyOf(merged), System.currentTimeMillis());
+        logger.info("🔀 Aliases atualizados: {}", physicalNames);
+    }
+
+    private Map<String, String> lookupAll() {
+        SearchIndexClient client = searchIndexClient.getIfAvailable();
+        if (client == null) {
+            return identity();
+        }
+        Map<String, Object> groupPointer = pointer(client.getSearchClient(aliasIndexName), groupName);
+        Map<String, String> grouped = parseEntries(groupPointer == null ? null : groupPointer.get(INDEX_NAMES));
+
+        Map<String, String> physicalNames = new LinkedHashMap<>();
+        for (String alias : shardRouter.shards()) {
+            physicalNames.put(alias, grouped.getOrDefault(alias, alias));
+        }
+        return Map.copyOf(physicalNames);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> pointer(SearchClient pointers, String logicalName) {
+        try {
+            return pointers.getDocument(key(logicalName), Map.class);
+        } catch (ResourceNotFoundException e) {
+            // Índice de aliases ou ponteiro ainda não criados
+            return null;
+        }
+    }
+
+    private static Map<String, String> parseEntries(Object value) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        if (value instanceof Collection<?> values) {
+            for (Object entry : values) {
+                String text = String.valueOf(entry);
+                int separator = text.indexOf('=');
+                if (separator > 0) {
+                    entries.put(text.substring(0, separator), text.substring(separator + 1));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private Map<String, String> identity() {
+        Map<String, String> physicalNames = new LinkedHashMap<>();
+        shardRouter.shards().forEach(alias -> physicalNames.put(alias, alias));
+        return Map.copyOf(physicalNames);
+    }
+
+    private void ensureAliasIndexExists() {
+        SearchIndexClient client = searchIndexClient.getObject();
+        if (client.listIndexes().stream().noneMatch(index -> index.getName().equalsIgnoreCase(aliasIndexName))) {
+            logger.info("Criando índice de aliases '{}'", aliasIndexName);
+            client.createOrUpdateIndex(new SearchIndex(aliasIndexName).setFields(List.of(
+                    new SearchField("id", SearchFieldDataType.STRING).setKey(true).setFilterable(true),
+                    new SearchField("logical_name", SearchFieldDataType.STRING).setFilterable(true),
+                    new SearchField(INDEX_NAMES, SearchFieldDataType.collection(SearchFieldDataType.STRING)),
+                    new SearchField("updated_at", SearchFieldDataType.STRING)
+            )));
+        }
+    }
+
+    private static String key(String logicalName) {
+        return logicalName.replaceAll("[^a-zA-Z0-9_-]", "_");
+    }
+}
@@ -0,0 +1,72 @@
+package com.langchain4j.chathealth.service.search;
+
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+
+/**
+ * Converte os campos de ChatRequest.context em pré-filtros sobre metadata/attributes.
+ * Apenas as chaves de 'rag.retriever.filter-keys' são aceitas (camelCase ou snake_case);
+ * valores simples viram igualdade e listas viram 'in'. Campos diferentes são combinados com AND.
+ */
+@Component
+public class RetrievalFilterFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetrievalFilterFactory.class);
+
+    private final Set<String> allowedKeys;
+
+    public RetrievalFilterFactory(@Value("${rag.retriever.filter-keys:tenant,plan,document_type,source,page}") List<String> allowedKeys) {
+        this.allowedKeys = allowedKeys.stream().map(String::trim).map(RetrievalFilterFactory::toSnakeCase)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return o filtro combinado, ou null quando o contexto não restringe a busca
+     */
+    public Filter fromContext(Map<String, Object> context) {
+        if (context == null || context.isEmpty()) {
+            return null;
+        }
+        Filter filter = null;
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            String key = toSnakeCase(entry.getKey());
+            if (!allowedKeys.contains(key)) {
+                logger.debug("Campo de contexto '{}' ignorado na recuperação (fora de rag.retriever.filter-keys)", entry.getKey());
+                continue;
+            }
+            Filter condition = condition(key, entry.getValue());
+            if (condition != null) {
+                filter = filter == null ? condition : filter.and(condition);
+            }
+        }
+        return filter;
+    }
+
+    // Os atributos são indexados como texto, então os valores são comparados como String
+    private static Filter condition(String key, Object value) {
+        if (value instanceof Collection<?> values) {
+            List<String> strings = values.stream().filter(v -> v != null).map(Object::toString).toList();
+            return strings.isEmpty() ? null : metadataKey(key).isIn(strings);
+        }
+        if (value == null || value.toString().isBlank()) {
+            return null;
+        }
+        return metadataKey(key).isEqualTo(value.toString());
+    }
+
+    static String toSnakeCase(String key) {
+        return key.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.langchain4j.chathealth.service.search;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recuperação vetorial com pré-filtro opcional nos atributos do documento (tenant, plano, tipo, página...).
+ * O filtro é aplicado pelo Azure AI Search antes da busca vetorial, reduzindo o conjunto de candidatos.
+ * Sem filtro, equivale ao EmbeddingStoreContentRetriever.
+ */
+public class ScopedContentRetriever implements ContentRetriever {
+
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final EmbeddingModel embeddingModel;
+    private final int maxResults;
+    private final double minScore;
+
+    public ScopedContentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel,
+                                  int maxResults, double minScore) {
+        this.embeddingStore = embeddingStore;
+        this.embeddingModel = embeddingModel;
+        this.maxResults = maxResults;
+        this.minScore = minScore;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        return retrieve(query.text(), null);
+    }
+
+    /**
+     * @param filter pré-filtro nos atributos (ver {@link RetrievalFilterFactory}); null busca no corpus inteiro
+     */
+    public List<Content> retrieve(String question, Filter filter) {
+        return retrieve(question, filter, null);
+    }
+
+    /**
+     * @param shards shards consultados quando o índice é dividido (ver {@link ShardRouter}); null consulta todos
+     */
+    public List<Content> retrieve(String question, Filter filter, Collection<String> shards) {
+        return search(embed(question), filter, shards);
+    }
+
+    /**
+     * Etapas separadas da recuperação, para que cada uma possa ter o seu próprio prazo (ver RagService).
+     */
+    public Embedding embed(String question) {
+        return embeddingModel.embed(question).content();
+    }
+
+    public List<Content> search(Embedding embedding, Filter filter, Collection<String> shards) {
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(embedding)
+                .maxResults(maxResults)
+                .minScore(minScore)
+                .filter(filter)
+                .build();
+        EmbeddingSearchResult<TextSegment> result = shards != null && embeddingStore instanceof ShardedEmbeddingStore sharded
+                ? sharded.search(request, shards)
+                : embeddingStore.search(request);
+        return result.matches().stream()
+                .map(ScopedContentRetriever::toContent)
+                .toList();
+    }
+
+    private static Content toContent(EmbeddingMatch<TextSegment> match) {
+        return Content.from(match.embedded(), Map.of(
+                ContentMetadata.SCORE, match.score(),
+                ContentMetadata.EMBEDDING_ID, match.embeddingId()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.langchain4j.chathealth.service.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Divide o corpus entre N índices (shards) do Azure AI Search.
+ * Cada arquivo vai inteiro para um shard, escolhido pelo hash do atributo de roteamento
+ * ('azure.search.shards.routing-key': tenant, document_type... ou source para distribuir por arquivo).
+ * Arquivos sem o atributo são distribuídos pelo hash do nome. Com um único shard, o índice é o próprio
+ * 'azure.search.index-name', como antes da divisão.
+ */
+@Component
+public class ShardRouter {
+
+    private final List<String> shards;
+    private final String routingKey;
+
+    public ShardRouter(@Value("${azure.search.index-name:}") String indexName,
+                       @Value("${azure.search.shards.count:1}") int count,
+                       @Value("${azure.search.shards.routing-key:tenant}") String routingKey) {
+        List<String> names = new ArrayList<>();
+        if (count <= 1) {
+            names.add(indexName);
+        } else {
+            for (int i = 0; i < count; i++) {
+                names.add(indexName + "-shard-" + i);
+            }
+        }
+        this.shards = List.copyOf(names);
+        this.routingKey = routingKey;
+    }
+
+    /**
+     * Nomes lógicos (aliases) de todos os shards.
+     */
+    public List<String> shards() {
+        return shards;
+    }
+
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    public String shardForFile(String filename) {
+        Map<String, String> attributes = DocumentAttributes.fromPath(filename);
+        String value = attributes.get(routingKey);
+        return shardForValue(value != null ? value : filename);
+    }
+
+    /**
+     * Shards que podem conter documentos do contexto: se o contexto fixa o atributo de roteamento,
+     * apenas os shards desses valores; caso contrário, todos.
+     */
+    public List<String> shardsForContext(Map<String, Object> context) {
+        if (!isSharded() || context == null || DocumentAttributes.SOURCE.equals(routingKey)) {
+            return shards;
+        }
+        Object value = context.entrySet().stream()
+                .filter(entry -> routingKey.equals(RetrievalFilterFactory.toSnakeCase(entry.getKey())))
+                .map(Map.Entry::getValue)
+                .findFirst().orElse(null);
+        if (value == null || value.toString().isBlank()) {
+            return shards;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        if (value instanceof Collection<?> values) {
+            values.stream().filter(v -> v != null).forEach(v -> selected.add(shardForValue(v.toString())));
+        } else {
+            selected.add(shardForValue(value.toString()));
+        }
+        return selected.isEmpty() ? shards : List.copyOf(selected);
+    }
+
+    // String.hashCode é definido pela especificação, então a atribuição é estável entre execuções e réplicas
+    private String shardForValue(String value) {
+        return shards.get(Math.floorMod(value.hashCode(), shards.size()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.langchain4j.chathealth.service.search;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * EmbeddingStore sobre vários shards: a busca é enviada a todos os shards relevantes em paralelo
+ * e os top-k de cada um são combinados pelo score (os scores são comparáveis porque todos os shards
+ * usam o mesmo modelo de embedding e a mesma métrica). Shards que não respondem dentro do timeout
+ * são cancelados e a resposta é montada com os demais, para um shard lento não segurar a latência da busca.
+ * Os índices físicos de todos os shards vêm de um único snapshot dos aliases (ver {@link IndexAliasService#resolveAll}),
+ * para que uma busca durante a troca de versão não combine shards antigos e novos.
+ * A escrita segue o roteamento do indexador: cada segmento vai para o shard do arquivo em 'source'.
+ */
+public class ShardedEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedEmbeddingStore.class);
+
+    private final ShardRouter shardRouter;
+    private final IndexAliasService indexAliasService;
+    private final Function<String, EmbeddingStore<TextSegment>> storeFactory;
+    private final long timeoutMs;
+    // índice físico -> store
+    private final Map<String, EmbeddingStore<TextSegment>> stores = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param storeFactory cria o store de um índice físico
+     */
+    public ShardedEmbeddingStore(ShardRouter shardRouter,
+                                 IndexAliasService indexAliasService,
+                                 Function<String, EmbeddingStore<TextSegment>> storeFactory,
+                                 long timeoutMs) {
+        this.shardRouter = shardRouter;
+        this.indexAliasService = indexAliasService;
+        this.storeFactory = storeFactory;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        return search(request, shardRouter.shards());
+    }
+
+    /**
+     * Busca apenas nos shards informados (ver {@link ShardRouter#shardsForContext}).
+     */
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request, Collection<String> shardNames) {
+        Map<String, String> physicalNames = indexAliasService.resolveAll();
+        if (shardNames.size() == 1) {
+            return store(shardNames.iterator().next(), physicalNames).search(request);
+        }
+
+        Map<String, Future<EmbeddingSearchResult<TextSegment>>> inFlight = new LinkedHashMap<>();
+        for (String shard : shardNames) {
+            EmbeddingStore<TextSegment> store = store(shard, physicalNames);
+            inFlight.put(shard, executor.submit(() -> store.search(request)));
+        }
+
+        // Um único prazo para toda a fan-out: a latência da busca é limitada pelo timeout, não pela soma dos shards
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Future<EmbeddingSearchResult<TextSegment>>> entry : inFlight.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                matches.addAll(entry.getValue().get(remaining, TimeUnit.NANOSECONDS).matches());
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                failed.add(entry.getKey());
+                logger.warn("⏱️ Shard '{}' não respondeu em {} ms; resultado montado sem ele.", entry.getKey(), timeoutMs);
+            } catch (ExecutionException e) {
+                failed.add(entry.getKey());
+                logger.warn("⚠️ Falha na busca no shard '{}': {}", entry.getKey(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inFlight.values().forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Busca nos shards interrompida", e);
+            }
+        }
+        if (failed.size() == inFlight.size()) {
+            throw new IllegalStateException("Nenhum shard respondeu à busca: " + failed);
+        }
+
+        List<EmbeddingMatch<TextSegment>> merged = matches.stream()
+                .sorted(Comparator.comparingDouble((EmbeddingMatch<TextSegment> match) -> match.score()).reversed())
+                .limit(request.maxResults())
+                .toList();
+        return new EmbeddingSearchResult<>(merged);
+    }
+
+    private EmbeddingStore<TextSegment> store(String shard, Map<String, String> physicalNames) {
+        String physicalName = physicalNames.get(shard);
+        if (physicalName == null) {
+            throw new IllegalArgumentException("Shard desconhecido: " + shard);
+        }
+        return stores.computeIfAbsent(physicalName, storeFactory);
+    }
+
+    private List<EmbeddingStore<TextSegment>> allStores() {
+        Map<String, String> physicalNames = indexAliasService.resolveAll();
+        return shardRouter.shards().stream().map(shard -> store(shard, physicalNames)).toList();
+    }
+
+    @Override
+    public void remove(String id) {
+        allStores().forEach(store -> store.remove(id));
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        allStores().forEach(store -> store.removeAll(ids));
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        allStores().forEach(store -> store.removeAll(filter));
+    }
+
+    @Override
+    public void removeAll() {
+        allStores().forEach(EmbeddingStore::removeAll);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = UUID.randomUUID().toString();
+        addAll(List.of(id), List.of(embedding), List.of(textSegment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> textSegments) {
+        List<String> ids = embeddings.stream().map(embedding -> UUID.randomUUID().toString()).toList();
+        addAll(ids, embeddings, textSegments);
+        return ids;
+    }
+
+    /**
+     * Cada segmento vai para o shard do seu arquivo, o mesmo escolhido pelo indexador ({@link ShardRouter#shardForFile}).
+     */
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments) {
+        if (textSegments == null || ids.size() != embeddings.size() || embeddings.size() != textSegments.size()) {
+            throw new IllegalArgumentException("ids, embeddings e segmentos devem ter o mesmo tamanho");
+        }
+        Map<String, String> physicalNames = indexAliasService.resolveAll();
+        Map<String, List<Integer>> positionsByShard = new LinkedHashMap<>();
+        for (int i = 0; i < textSegments.size(); i++) {
+            String source = textSegments.get(i).metadata().getString(DocumentAttributes.SOURCE);
+            if (source == null || source.isBlank()) {
+                throw sourceRequired();
+            }
+            positionsByShard.computeIfAbsent(shardRouter.shardForFile(source), shard -> new ArrayList<>()).add(i);
+        }
+        positionsByShard.forEach((shard, positions) -> store(shard, physicalNames).addAll(
+                positions.stream().map(ids::get).toList(),
+                positions.stream().map(embeddings::get).toList(),
+                positions.stream().map(textSegments::get).toList()));
+    }
+
+    // Sem segmento não há 'source' para escolher o shard
+    @Override
+    public String add(Embedding embedding) {
+        throw sourceRequired();
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        throw sourceRequired();
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        throw sourceRequired();
+    }
+
+    private static IllegalArgumentException sourceRequired() {
+        return new IllegalArgumentException("A escrita em shards exige segmentos com o atributo '"
+                + DocumentAttributes.SOURCE + "' (ver ShardRouter.shardForFile)");
+    }
+}
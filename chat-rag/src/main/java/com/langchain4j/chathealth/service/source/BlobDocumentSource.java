@@ -0,0 +1,111 @@
+package com.langchain4j.chathealth.service.source;
+
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.BlobItem;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Origem de documentos no Azure Blob Storage. A versão de cada documento é o ETag do blob.
+ * Listagem e hash usam o cliente assíncrono: as próximas páginas da listagem são buscadas enquanto a atual
+ * é processada ('indexer.source.blob.page-prefetch') e até 'indexer.source.blob.hash-concurrency' downloads
+ * correm ao mesmo tempo nas threads de I/O do SDK. A leitura dos PDFs para ingestão continua por stream bloqueante.
+ */
+public class BlobDocumentSource implements DocumentSource {
+
+    private final BlobServiceClient blobServiceClient;
+    private final BlobContainerAsyncClient asyncContainer;
+    private final String containerName;
+    private final int pagePrefetch;
+    private final int hashConcurrency;
+
+    public BlobDocumentSource(BlobServiceClient blobServiceClient, BlobContainerAsyncClient asyncContainer,
+                              String containerName, int pagePrefetch, int hashConcurrency) {
+        this.blobServiceClient = blobServiceClient;
+        this.asyncContainer = asyncContainer;
+        this.containerName = containerName;
+        this.pagePrefetch = Math.max(1, pagePrefetch);
+        this.hashConcurrency = Math.max(1, hashConcurrency);
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return containerName != null && !containerName.isEmpty();
+    }
+
+    @Override
+    public String describe() {
+        return "blob:" + containerName;
+    }
+
+    @Override
+    public List<SourceFile> listDocuments() {
+        List<SourceFile> files = asyncContainer.listBlobs()
+                .byPage()
+                .flatMapIterable(PagedResponse::getValue, pagePrefetch)
+                .filter(blob -> blob.getName().toLowerCase().endsWith(".pdf"))
+                .map(BlobDocumentSource::toSourceFile)
+                .collectList()
+                .block();
+        return files != null ? files : new ArrayList<>();
+    }
+
+    private static SourceFile toSourceFile(BlobItem blob) {
+        String eTag = blob.getProperties() != null ? blob.getProperties().getETag() : null;
+        return new SourceFile(blob.getName(), eTag);
+    }
+
+    @Override
+    public InputStream open(String name) {
+        return container().getBlobClient(name).openInputStream();
+    }
+
+    @Override
+    public Map<String, String> hashAll(Collection<String> names) throws IOException {
+        try {
+            Map<String, String> hashes = Flux.fromIterable(names)
+                    .flatMap(name -> sha256(name).map(hash -> Map.entry(name, hash)), hashConcurrency)
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                    .block();
+            return hashes != null ? new java.util.HashMap<>(hashes) : new java.util.HashMap<>();
+        } catch (RuntimeException e) {
+            throw new IOException("Falha ao calcular o hash dos blobs em " + describe(), e);
+        }
+    }
+
+    // O download chega em buffers na ordem do arquivo; o digest é atualizado sem materializar o blob inteiro
+    private Mono<String> sha256(String name) {
+        return asyncContainer.getBlobAsyncClient(name)
+                .downloadStream()
+                .reduceWith(BlobDocumentSource::newDigest, (digest, buffer) -> {
+                    digest.update(buffer);
+                    return digest;
+                })
+                .map(digest -> HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private BlobContainerClient container() {
+        return blobServiceClient.getBlobContainerClient(containerName);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
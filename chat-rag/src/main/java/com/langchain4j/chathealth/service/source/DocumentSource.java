@@ -0,0 +1,48 @@
+package com.langchain4j.chathealth.service.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Origem dos PDFs consumidos pelo indexador (Azure Blob Storage ou diretório local).
+ */
+public interface DocumentSource {
+
+    /**
+     * Documento disponível na origem. A versão (ETag, data de modificação + tamanho)
+     * muda sempre que o conteúdo muda e permite evitar re-hash de arquivos inalterados.
+     */
+    record SourceFile(String name, String version) {}
+
+    /**
+     * Indica se a origem está configurada (container/diretório definido).
+     */
+    boolean isConfigured();
+
+    /**
+     * Descrição curta da origem, usada em logs.
+     */
+    String describe();
+
+    /**
+     * Lista os PDFs disponíveis na origem.
+     */
+    List<SourceFile> listDocuments() throws IOException;
+
+    InputStream open(String name) throws IOException;
+
+    /**
+     * Calcula o SHA-256 (hex) de cada documento informado.
+     */
+    Map<String, String> hashAll(Collection<String> names) throws IOException;
+
+    /**
+     * Registra um callback de notificação de mudanças. Origens sem suporte ignoram a chamada
+     * e dependem apenas do polling do indexador.
+     */
+    default void watch(Runnable onChange) {
+    }
+}
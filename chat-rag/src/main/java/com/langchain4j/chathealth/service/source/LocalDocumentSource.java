@@ -0,0 +1,242 @@
+package com.langchain4j.chathealth.service.source;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Origem de documentos em um diretório local, para execuções on-prem, testes offline e benchmarks.
+ * A árvore é percorrida em paralelo (uma subtarefa por diretório), os arquivos são hasheados via
+ * {@link FileChannel#map} em blocos grandes num pool de workers, e um {@link WatchService}
+ * notifica o indexador sobre alterações.
+ */
+public class LocalDocumentSource implements DocumentSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalDocumentSource.class);
+
+    private final Path root;
+    private final int hashThreads;
+    private final long mapChunkBytes;
+    private final long watchDebounceMs;
+
+    public LocalDocumentSource(String root, int hashThreads, long mapChunkBytes, long watchDebounceMs) {
+        this.root = root == null || root.isEmpty() ? null : Paths.get(root).toAbsolutePath().normalize();
+        this.hashThreads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        this.mapChunkBytes = mapChunkBytes;
+        this.watchDebounceMs = watchDebounceMs;
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return root != null && Files.isDirectory(root);
+    }
+
+    @Override
+    public String describe() {
+        return "local:" + root;
+    }
+
+    @Override
+    public List<SourceFile> listDocuments() throws IOException {
+        List<Path> pdfs;
+        try {
+            pdfs = ForkJoinPool.commonPool().invoke(new WalkTask(root));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<SourceFile> files = new ArrayList<>(pdfs.size());
+        for (Path pdf : pdfs) {
+            BasicFileAttributes attributes = Files.readAttributes(pdf, BasicFileAttributes.class);
+            String version = attributes.lastModifiedTime().toMillis() + "-" + attributes.size();
+            files.add(new SourceFile(nameOf(pdf), version));
+        }
+        return files;
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        return Files.newInputStream(resolve(name));
+    }
+
+    @Override
+    public Map<String, String> hashAll(Collection<String> names) throws IOException {
+        Map<String, String> hashes = new java.util.HashMap<>();
+        if (names.isEmpty()) {
+            return hashes;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(hashThreads, names.size()));
+        try {
+            Map<String, Future<String>> futures = new java.util.HashMap<>();
+            for (String name : names) {
+                futures.put(name, workers.submit(() -> calculateSha256(resolve(name))));
+            }
+            for (Map.Entry<String, Future<String>> entry : futures.entrySet()) {
+                hashes.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Hash de arquivos interrompido", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Erro ao calcular hash de arquivo: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        return hashes;
+    }
+
+    @Override
+    public void watch(Runnable onChange) {
+        if (!isConfigured()) {
+            return;
+        }
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            List<Path> directories;
+            try (var paths = Files.walk(root)) {
+                directories = paths.filter(Files::isDirectory).toList();
+            }
+            for (Path directory : directories) {
+                register(watchService, directory);
+            }
+            Thread watcher = new Thread(() -> watchLoop(watchService, onChange), "local-source-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            logger.info("👀 Monitorando alterações em {}", root);
+        } catch (IOException e) {
+            logger.warn("Não foi possível monitorar {}; usando apenas polling. {}", root, e.getMessage());
+        }
+    }
+
+    private void watchLoop(WatchService watchService, Runnable onChange) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                // Agrupa rajadas de eventos (ex.: cópia de vários arquivos) numa única notificação
+                while (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (var event : key.pollEvents()) {
+                        if (event.context() instanceof Path child) {
+                            Path path = directory.resolve(child);
+                            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                                register(watchService, path);
+                            }
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll(watchDebounceMs, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    onChange.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Monitoramento de {} encerrado: {}", root, e.getMessage());
+        }
+    }
+
+    private void register(WatchService watchService, Path directory) throws IOException {
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private String calculateSha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += mapChunkBytes) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(mapChunkBytes, size - position));
+                digest.update(buffer);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path resolve(String name) {
+        Path path = root.resolve(name).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Documento fora do diretório de origem: " + name);
+        }
+        return path;
+    }
+
+    // Nomes relativos com '/' para manter o mesmo formato dos nomes de blob
+    private String nameOf(Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * Percorre um diretório criando uma subtarefa por subdiretório.
+     */
+    private static class WalkTask extends RecursiveTask<List<Path>> {
+
+        private final Path directory;
+
+        WalkTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> pdfs = new ArrayList<>();
+            List<WalkTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry)) {
+                        WalkTask subtask = new WalkTask(entry);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    } else if (entry.getFileName().toString().toLowerCase().endsWith(".pdf")) {
+                        pdfs.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (WalkTask subtask : subtasks) {
+                pdfs.addAll(subtask.join());
+            }
+            return pdfs;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.langchain4j.chathealth.service.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.context.annotation.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.langchain4j.chathealth.dto.ChatResponse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aquecimento da API antes de receber tráfego.
+ * Executa chamadas sintéticas de embedding, busca e completion nos dois tiers de modelo (além de um caminho
+ * local sem rede) em paralelo, para abrir e manter no pool as conexões TLS com o Azure OpenAI e o AI Search,
+ * carregar as classes dos SDKs e dar tempo ao JIT. Enquanto não termina, o health check responde 503.
+ */
+@Profile("!indexer")
+@Service
+public class WarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupService.class);
+
+    public enum State { PENDING, WARMING, READY, DISABLED }
+
+    private final EmbeddingModel embeddingModel;
+    private final ContentRetriever contentRetriever;
+    private final ChatModel chatModel;
+    private final ChatModel fastChatModel;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<String> calls;
+    private final List<String> queries;
+    private final int iterations;
+    private final int concurrency;
+    private final int chatMaxTokens;
+    private final long timeoutMs;
+
+    private volatile State state;
+    private volatile long durationMs = -1;
+    private final AtomicLong failures = new AtomicLong();
+    private volatile String lastError;
+    // chamada -> latência (ms) de cada iteração; a primeira iteração é a referência de partida a frio
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong firstRequestLatencyMs = new AtomicLong(-1);
+
+    public WarmupService(EmbeddingModel embeddingModel,
+                         ContentRetriever contentRetriever,
+                         ChatModel chatModel,
+                         @Qualifier("fastChatModel") ChatModel fastChatModel,
+                         ObjectMapper objectMapper,
+                         @Value("${rag.warmup.enabled:true}") boolean enabled,
+                         @Value("${rag.warmup.calls:local,embed,search,chat,chat-fast}") List<String> calls,
+                         @Value("${rag.warmup.queries:Quais exames estão cobertos pelo plano?}") List<String> queries,
+                         @Value("${rag.warmup.iterations:3}") int iterations,
+                         @Value("${rag.warmup.concurrency:4}") int concurrency,
+                         @Value("${rag.warmup.chat-max-tokens:1}") int chatMaxTokens,
+                         @Value("${rag.warmup.timeout-ms:60000}") long timeoutMs) {
+        this.embeddingModel = embeddingModel;
+        this.contentRetriever = contentRetriever;
+        this.chatModel = chatModel;
+        this.fastChatModel = fastChatModel;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.calls = calls.stream().map(String::trim).filter(call -> !call.isEmpty()).toList();
+        this.queries = queries;
+        this.iterations = Math.max(1, iterations);
+        this.concurrency = Math.max(1, concurrency);
+        this.chatMaxTokens = chatMaxTokens;
+        this.timeoutMs = timeoutMs;
+        this.state = enabled ? State.PENDING : State.DISABLED;
+    }
+
+    public boolean isReady() {
+        return state == State.READY || state == State.DISABLED;
+    }
+
+    /**
+     * Executa as iterações de aquecimento. Falhas são registradas mas não impedem a prontidão:
+     * um pod que nunca fica pronto por instabilidade do Azure seria pior do que um primeiro request mais lento.
+     */
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Warm-up desabilitado (rag.warmup.enabled=false)");
+            return;
+        }
+        state = State.WARMING;
+        logger.info("🔥 Iniciando warm-up: chamadas {}, {} iterações, {} em paralelo", calls, iterations, concurrency);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int iteration = 0; iteration < iterations && System.nanoTime() < deadline; iteration++) {
+                for (String call : calls) {
+                    runCall(executor, call, iteration, deadline);
+                }
+            }
+        }
+
+        durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        state = State.READY;
+        logger.info("✅ Warm-up concluído em {} ms (falhas: {}). Latência fria x aquecida por chamada: {}",
+                durationMs, failures.get(), summary());
+    }
+
+    /**
+     * Registra a latência da primeira requisição real atendida após a inicialização.
+     */
+    public void recordRequestLatency(long latencyMs) {
+        if (firstRequestLatencyMs.compareAndSet(-1, latencyMs)) {
+            logger.info("⏱️ Primeira requisição atendida em {} ms (warm-up: {}, estimativa a frio: {} ms)",
+                    latencyMs, enabled ? "habilitado" : "desabilitado", coldRequestEstimateMs());
+        }
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("state", state.name());
+        report.put("ready", isReady());
+        report.put("warmupDurationMs", durationMs);
+        report.put("failures", failures.get());
+        report.put("lastError", lastError);
+        report.put("calls", summary());
+        report.put("coldRequestEstimateMs", coldRequestEstimateMs());
+        report.put("firstRequestLatencyMs", firstRequestLatencyMs.get());
+        return report;
+    }
+
+    // Dispara 'concurrency' chamadas simultâneas para que o pool mantenha várias conexões abertas
+    private void runCall(ExecutorService executor, String call, int iteration, long deadline) {
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            String query = queries.get((iteration * concurrency + i) % queries.size());
+            futures.add(executor.submit(() -> {
+                invoke(call, query);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            latencies.computeIfAbsent(call, key -> new CopyOnWriteArrayList<>())
+                    .add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(call, e);
+        } catch (ExecutionException e) {
+            fail(call, e.getCause());
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            fail(call, e);
+        }
+    }
+
+    private void invoke(String call, String query) throws JsonProcessingException {
+        switch (call) {
+            case "embed" -> embeddingModel.embed(query);
+            case "search" -> contentRetriever.retrieve(Query.from(query));
+            case "chat" -> chatModel.chat(chatRequest(query));
+            // Tier rápido: outro deployment (e outro pool de conexões) usado pelas perguntas simples
+            case "chat-fast" -> fastChatModel.chat(chatRequest(query));
+            // Caminho local, sem rede: serialização da resposta e montagem da consulta
+            case "local" -> {
+                objectMapper.writeValueAsString(new ChatResponse(query, "rag", "rag_service", 0.0, Map.of()));
+                Query.from(query);
+            }
+            default -> throw new IllegalArgumentException("Chamada de warm-up desconhecida: " + call);
+        }
+    }
+
+    private ChatRequest chatRequest(String query) {
+        return ChatRequest.builder()
+                .messages(UserMessage.from(query))
+                .maxOutputTokens(chatMaxTokens)
+                .build();
+    }
+
+    private void fail(String call, Throwable e) {
+        failures.incrementAndGet();
+        lastError = call + ": " + e.getMessage();
+        logger.warn("⚠️ Falha no warm-up '{}': {}", call, e.getMessage());
+    }
+
+    private Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (String call : calls) {
+            List<Long> values = latencies.getOrDefault(call, List.of());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("coldMs", values.isEmpty() ? -1 : values.get(0));
+            entry.put("warmMs", values.isEmpty() ? -1 : values.get(values.size() - 1));
+            entry.put("iterations", values.size());
+            summary.put(call, entry);
+        }
+        return summary;
+    }
+
+    // Uma requisição /chat equivale a busca (embedding + consulta) seguida de completion
+    private long coldRequestEstimateMs() {
+        long total = 0;
+        for (String call : List.of("search", "chat")) {
+            List<Long> values = latencies.get(call);
+            if (values == null || values.isEmpty()) {
+                return -1;
+            }
+            total += values.get(0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,118 @@
+package com.langchain4j.chathealth.service;
+
+import com.azure.search.documents.SearchClient;
+import com.azure.search.documents.indexes.SearchIndexClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import com.langchain4j.chathealth.service.search.IndexAliasService;
+import com.langchain4j.chathealth.service.search.ShardRouter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndexRebuildServiceTest {
+
+    private static final int PARALLELISM = 4;
+
+    private final ShardRouter shardRouter = new ShardRouter("docs", 2, "source");
+    private final IndexerService indexerService = mock(IndexerService.class);
+    private final SearchIndexClient searchIndexClient = mock(SearchIndexClient.class);
+    private final IndexAliasService indexAliasService = mock(IndexAliasService.class);
+
+    private final List<IndexerService.FileInfo> files = List.of(
+            new IndexerService.FileInfo("a.pdf", "h1", "v1"),
+            new IndexerService.FileInfo("b.pdf", "h2", "v1"),
+            new IndexerService.FileInfo("planos/c.pdf", "h3", "v1"),
+            new IndexerService.FileInfo("planos/d.pdf", "h4", "v1"));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(indexerService.isConfigured()).thenReturn(true);
+        when(indexerService.shardRouter()).thenReturn(shardRouter);
+        when(indexerService.searchIndexClient()).thenReturn(searchIndexClient);
+        when(indexerService.snapshotSource()).thenReturn(files);
+        when(searchIndexClient.getSearchClient(anyString())).thenAnswer(invocation -> mock(SearchClient.class));
+        when(indexerService.ingestNewDocuments(any(), anyList(), anyBoolean(), anyInt()))
+                .thenAnswer(invocation -> new IndexerService.IngestResult(List.of(), invocation.<List<?>>getArgument(1).size()));
+        when(indexAliasService.resolveAll()).thenReturn(Map.of("docs-shard-0", "docs-shard-0-v1", "docs-shard-1", "docs-shard-1-v1"));
+    }
+
+    private IndexRebuildService service(boolean dropPrevious) {
+        return new IndexRebuildService(indexerService, indexAliasService, PARALLELISM, 0, dropPrevious);
+    }
+
+    private List<IndexerService.FileInfo> filesOf(String shard) {
+        return files.stream().filter(file -> shard.equals(shardRouter.shardForFile(file.filename()))).toList();
+    }
+
+    @Test
+    void fillsEveryShardBeforeSwitchingAliasesAndThenDropsPreviousIndexes() throws Exception {
+        service(true).rebuild();
+
+        InOrder order = inOrder(indexerService, indexAliasService, searchIndexClient);
+        for (String shard : shardRouter.shards()) {
+            order.verify(indexerService).createIndex(startsWith(shard + "-v"));
+            order.verify(indexerService).ingestNewDocuments(any(), eq(filesOf(shard)), eq(false), eq(PARALLELISM));
+            order.verify(indexerService).waitUntilReady(startsWith(shard + "-v"), eq((long) filesOf(shard).size()));
+        }
+        order.verify(indexAliasService).switchAll(argThat(switched -> switched.size() == 2
+                && switched.entrySet().stream().allMatch(entry -> entry.getValue().startsWith(entry.getKey() + "-v"))));
+        order.verify(searchIndexClient).deleteIndex("docs-shard-0-v1");
+        order.verify(searchIndexClient).deleteIndex("docs-shard-1-v1");
+    }
+
+    @Test
+    void keepsPreviousIndexesWhenDropIsDisabled() throws Exception {
+        service(false).rebuild();
+
+        verify(indexAliasService).switchAll(anyMap());
+        verify(searchIndexClient, never()).deleteIndex(anyString());
+    }
+
+    @Test
+    void failedIngestionKeepsAliasesAndDropsPartialIndexes() throws Exception {
+        when(indexerService.ingestNewDocuments(any(), eq(filesOf("docs-shard-1")), anyBoolean(), anyInt()))
+                .thenReturn(new IndexerService.IngestResult(List.of("b.pdf"), 0));
+
+        assertThatThrownBy(() -> service(true).rebuild())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("b.pdf");
+
+        ArgumentCaptor<String> created = ArgumentCaptor.forClass(String.class);
+        verify(indexerService, times(2)).createIndex(created.capture());
+        verify(indexAliasService, never()).switchAll(anyMap());
+        created.getAllValues().forEach(index -> verify(searchIndexClient).deleteIndex(index));
+        verify(searchIndexClient, never()).deleteIndex("docs-shard-0-v1");
+        verify(searchIndexClient, never()).deleteIndex("docs-shard-1-v1");
+    }
+
+    @Test
+    void skipsRebuildWhenNotConfigured() throws Exception {
+        when(indexerService.isConfigured()).thenReturn(false);
+
+        service(true).rebuild();
+
+        verify(indexerService, never()).createIndex(anyString());
+        verify(indexAliasService, never()).switchAll(anyMap());
+    }
+}
@@ -0,0 +1,138 @@
+package com.langchain4j.chathealth.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.langchain4j.chathealth.configuration.routing.ModelRoutingProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentAddressedEmbeddingCacheTest {
+
+    private static final int DIMENSION = 3;
+    private static final int RECORD_SIZE = 32 + DIMENSION * Float.BYTES;
+
+    @TempDir
+    Path directory;
+
+    // Vetor determinístico por texto, para comparar o que volta do cache com o que o modelo geraria
+    private static float[] vectorOf(String text) {
+        return new float[] {text.length(), text.hashCode() % 1000, text.charAt(0)};
+    }
+
+    private static class CountingEmbeddingModel implements EmbeddingModel {
+
+        final List<String> embedded = new ArrayList<>();
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (TextSegment segment : segments) {
+                embedded.add(segment.text());
+                embeddings.add(Embedding.from(vectorOf(segment.text())));
+            }
+            return Response.from(embeddings);
+        }
+    }
+
+    private static ModelRoutingProperties routing(String... embeddingModels) {
+        List<ModelRoutingProperties.Deployment> deployments = new ArrayList<>();
+        for (int i = 0; i < embeddingModels.length; i++) {
+            deployments.add(new ModelRoutingProperties.Deployment("d" + i, "https://d" + i, "key", embeddingModels[i], 1.0, 0));
+        }
+        return new ModelRoutingProperties(true, 0.95, 250, 3000, 20, 200, 30000,
+                List.of(), List.of(), "gpt-4o-mini", deployments);
+    }
+
+    private ContentAddressedEmbeddingCache cache(EmbeddingModel model) {
+        return new ContentAddressedEmbeddingCache(model, true, directory.toString(), routing(), DIMENSION);
+    }
+
+    private Path storeFile() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".bin")).findFirst().orElseThrow();
+        }
+    }
+
+    private static List<TextSegment> segments(String... texts) {
+        return java.util.Arrays.stream(texts).map(TextSegment::from).toList();
+    }
+
+    @Test
+    void embedsOnlyUnseenTextsAndDeduplicatesWithinTheBatch() {
+        CountingEmbeddingModel model = new CountingEmbeddingModel();
+        ContentAddressedEmbeddingCache cache = cache(model);
+
+        List<Embedding> first = cache.embedAll(segments("alfa", "beta", "alfa"));
+        List<Embedding> second = cache.embedAll(segments("beta", "gama"));
+
+        assertThat(model.embedded).containsExactly("alfa", "beta", "gama");
+        assertThat(first.get(0).vector()).isEqualTo(vectorOf("alfa"));
+        assertThat(first.get(2).vector()).isEqualTo(vectorOf("alfa"));
+        assertThat(second.get(0).vector()).isEqualTo(vectorOf("beta"));
+        assertThat(cache.stats().chunksReused()).isEqualTo(1);
+        assertThat(cache.stats().apiCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void reloadsPersistedVectorsWithoutCallingTheModel() throws IOException {
+        cache(new CountingEmbeddingModel()).embedAll(segments("alfa", "beta"));
+        assertThat(Files.size(storeFile())).isEqualTo(2L * RECORD_SIZE);
+
+        CountingEmbeddingModel model = new CountingEmbeddingModel();
+        List<Embedding> reloaded = cache(model).embedAll(segments("beta", "alfa"));
+
+        assertThat(model.embedded).isEmpty();
+        assertThat(reloaded.get(0).vector()).isEqualTo(vectorOf("beta"));
+        assertThat(reloaded.get(1).vector()).isEqualTo(vectorOf("alfa"));
+    }
+
+    @Test
+    void dropsATornRecordOnLoad() throws IOException {
+        cache(new CountingEmbeddingModel()).embedAll(segments("alfa"));
+        Files.write(storeFile(), new byte[] {1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        CountingEmbeddingModel model = new CountingEmbeddingModel();
+        List<Embedding> reloaded = cache(model).embedAll(segments("alfa"));
+
+        assertThat(model.embedded).isEmpty();
+        assertThat(reloaded.get(0).vector()).isEqualTo(vectorOf("alfa"));
+        assertThat(Files.size(storeFile())).isEqualTo(RECORD_SIZE);
+    }
+
+    @Test
+    void appendRealignsAfterATornRecordSoLaterRecordsReloadIntact() throws IOException {
+        ContentAddressedEmbeddingCache cache = cache(new CountingEmbeddingModel());
+        cache.embedAll(segments("alfa"));
+        // Escrita anterior interrompida no meio de um registro
+        Files.write(storeFile(), new byte[] {9, 9, 9}, StandardOpenOption.APPEND);
+        cache.embedAll(segments("beta"));
+
+        assertThat(Files.size(storeFile())).isEqualTo(2L * RECORD_SIZE);
+        CountingEmbeddingModel model = new CountingEmbeddingModel();
+        List<Embedding> reloaded = cache(model).embedAll(segments("alfa", "beta"));
+        assertThat(model.embedded).isEmpty();
+        assertThat(reloaded.get(0).vector()).isEqualTo(vectorOf("alfa"));
+        assertThat(reloaded.get(1).vector()).isEqualTo(vectorOf("beta"));
+    }
+
+    @Test
+    void namespaceFollowsTheEmbeddingDeploymentModels() {
+        assertThat(ContentAddressedEmbeddingCache.namespace(routing(), 1536)).isEqualTo("text-embedding-3-small-1536");
+        assertThat(ContentAddressedEmbeddingCache.namespace(routing("text-embedding-3-large", "text-embedding-3-large"), 3072))
+                .isEqualTo("text-embedding-3-large-3072");
+        assertThat(ContentAddressedEmbeddingCache.namespace(routing("text-embedding-3-large"), 1536))
+                .isNotEqualTo(ContentAddressedEmbeddingCache.namespace(routing("text-embedding-3-small"), 1536));
+    }
+}
@@ -0,0 +1,112 @@
+package com.langchain4j.chathealth.service.evaluation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+import com.langchain4j.chathealth.service.rag.ContextAssembler;
+import com.langchain4j.chathealth.service.search.RetrievalFilterFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RetrievalEvaluatorTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Embedding por palavra-chave: "carência" aponta para o eixo x, "reembolso" para o eixo y.
+     */
+    private static class KeywordEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            return Response.from(segments.stream().map(segment -> embed(segment.text())).toList());
+        }
+
+        private static Embedding embed(String text) {
+            if (text.contains("carência")) {
+                return Embedding.from(new float[] {1, 0, 0});
+            }
+            if (text.contains("reembolso")) {
+                return Embedding.from(new float[] {0, 1, 0});
+            }
+            return Embedding.from(new float[] {0, 0, 1});
+        }
+    }
+
+    private static void add(EmbeddingStore<TextSegment> store, String source, String text, float... vector) {
+        store.add(Embedding.from(vector), TextSegment.from(text, Metadata.from(DocumentAttributes.SOURCE, source)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RetrievalEvaluator evaluator(List<Integer> maxResults) throws IOException {
+        // "carência": S1 no topo. "reembolso": o manual (S3) vem antes do arquivo esperado (S2)
+        EmbeddingStore<TextSegment> index = new InMemoryEmbeddingStore<>();
+        add(index, "planos/carencia.pdf", "A carência para consultas é de 30 dias.", 1, 0, 0);
+        add(index, "reembolso.pdf", "O reembolso é pago em até 30 dias após o pedido.", 0.6f, 0.8f, 0);
+        add(index, "manual.pdf", "Consulte o manual do beneficiário para outras dúvidas.", 0, 1, 0);
+        ObjectProvider<EmbeddingStore<TextSegment>> indexStore = mock(ObjectProvider.class);
+        when(indexStore.getIfAvailable()).thenReturn(index);
+
+        Path dataset = directory.resolve("dataset.jsonl");
+        Files.writeString(dataset, """
+                {"question": "Qual a carência?", "expected_sources": ["carencia.pdf"]}
+                {"question": "Como pedir reembolso?", "expected_sources": ["reembolso.pdf"]}
+                """);
+
+        return new RetrievalEvaluator(new KeywordEmbeddingModel(), indexStore,
+                new ContextAssembler(true, 1500, 4.0, 0.85, 100), new RetrievalFilterFactory(List.of("tenant")),
+                new ObjectMapper(), dataset.toString(), "", directory.resolve("report.json").toString(), "azure",
+                maxResults, List.of(0.0), List.of("index"), List.of(0.0), 0.9, 0.0, 2);
+    }
+
+    @Test
+    void computesRecallAndMrrPerGridPoint() throws Exception {
+        EvaluationReport report = evaluator(List.of(1, 2)).evaluate();
+
+        assertThat(report.cases()).isEqualTo(2);
+        assertThat(report.rows()).extracting(EvaluationReport.Row::maxResults).containsExactly(1, 2);
+        EvaluationReport.Row k1 = report.rows().get(0);
+        EvaluationReport.Row k2 = report.rows().get(1);
+
+        // k=1: só a pergunta de carência acerta, na primeira posição
+        assertThat(k1.recallAtK()).isCloseTo(0.5, within(1e-9));
+        assertThat(k1.mrr()).isCloseTo(0.5, within(1e-9));
+        // k=2: as duas acertam; o reembolso aparece na segunda posição (1/2)
+        assertThat(k2.recallAtK()).isCloseTo(1.0, within(1e-9));
+        assertThat(k2.mrr()).isCloseTo(0.75, within(1e-9));
+        assertThat(k2.avgPassages()).isEqualTo(2.0);
+        assertThat(k2.avgPromptTokens()).isGreaterThan(k1.avgPromptTokens());
+        for (EvaluationReport.Row row : report.rows()) {
+            assertThat(row.p50LatencyMs()).isGreaterThanOrEqualTo(0.0).isLessThanOrEqualTo(row.p95LatencyMs());
+        }
+    }
+
+    @Test
+    void recommendsTheSmallestPromptThatMeetsTheRecallBar() throws Exception {
+        EvaluationReport report = evaluator(List.of(1, 2, 3)).evaluate();
+
+        // k=1 não atinge recall 0.9; k=2 e k=3 atingem, e k=2 monta o prompt menor
+        assertThat(report.recommended()).isNotNull();
+        assertThat(report.recommended().maxResults()).isEqualTo(2);
+        assertThat(directory.resolve("report.json")).exists();
+    }
+}
@@ -0,0 +1,41 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class DocumentAttributesTest {
+
+    @Test
+    void plainFileOnlyCarriesItsSource() {
+        assertThat(DocumentAttributes.fromPath("manual.pdf")).containsExactly(entry("source", "manual.pdf"));
+    }
+
+    @Test
+    void keyValueDirectoriesBecomeAttributes() {
+        Map<String, String> attributes = DocumentAttributes.fromPath("tenant=acme/plan=gold/document_type=faq/manual.pdf");
+
+        assertThat(attributes).containsExactly(
+                entry("source", "tenant=acme/plan=gold/document_type=faq/manual.pdf"),
+                entry("tenant", "acme"),
+                entry("plan", "gold"),
+                entry("document_type", "faq"));
+    }
+
+    @Test
+    void keysAreLowercasedAndSanitized() {
+        Map<String, String> attributes = DocumentAttributes.fromPath("Document-Type= faq /Tenant=Acme/manual.pdf");
+
+        assertThat(attributes).containsEntry("document_type", "faq").containsEntry("tenant", "Acme");
+    }
+
+    @Test
+    void directoriesWithoutAKeyOrValueAndTheFileNameAreIgnored() {
+        Map<String, String> attributes = DocumentAttributes.fromPath("docs/=acme/plan=/tenant=acme/page=3.pdf");
+
+        assertThat(attributes).containsOnlyKeys("source", "tenant");
+    }
+}
@@ -0,0 +1,192 @@
+package com.langchain4j.chathealth.service.indexer;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.langchain4j.chathealth.service.indexer.IndexingCheckpointStore.Checkpoint;
+import com.langchain4j.chathealth.service.indexer.IndexingCheckpointStore.Stage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IndexingCheckpointStoreTest {
+
+    private static final String FILE = "planos/saude 2024.pdf";
+
+    @TempDir
+    Path directory;
+
+    private IndexingCheckpointStore store() {
+        return new IndexingCheckpointStore(true, directory.toString());
+    }
+
+    private List<String> filesInDirectory() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).toList();
+        }
+    }
+
+    @Test
+    void resumesFromTheLastStageReached() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.advance(FILE, "v1", "hash-1", Stage.DOWNLOADED, 0);
+        store.advance(FILE, "v1", "hash-1", Stage.PARSED, 12);
+
+        // Uma nova instância (execução reiniciada) enxerga o mesmo estado
+        Optional<Checkpoint> checkpoint = store().find(FILE, "hash-1");
+
+        assertThat(checkpoint).isPresent();
+        assertThat(checkpoint.get().stage()).isEqualTo(Stage.PARSED);
+        assertThat(checkpoint.get().segmentCount()).isEqualTo(12);
+        assertThat(checkpoint.get().reached(Stage.DOWNLOADED)).isTrue();
+        assertThat(checkpoint.get().reached(Stage.PARSED)).isTrue();
+        assertThat(checkpoint.get().reached(Stage.EMBEDDED)).isFalse();
+        assertThat(store().findAll()).extracting(Checkpoint::filename).containsExactly(FILE);
+    }
+
+    @Test
+    void checkpointOfAnotherFileVersionIsDiscarded() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.saveDownload(FILE, new ByteArrayInputStream("pdf".getBytes(StandardCharsets.UTF_8)));
+        store.advance(FILE, "v1", "hash-1", Stage.DOWNLOADED, 0);
+
+        assertThat(store.find(FILE, "hash-2")).isEmpty();
+        assertThat(store.find(FILE, "hash-1")).isEmpty();
+        assertThat(filesInDirectory()).isEmpty();
+    }
+
+    @Test
+    void corruptCheckpointRestartsFromScratch() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.advance(FILE, "v1", "hash-1", Stage.EMBEDDED, 3);
+        Path checkpointFile;
+        try (var files = Files.list(directory)) {
+            checkpointFile = files.filter(f -> f.toString().endsWith(".checkpoint.json")).findFirst().orElseThrow();
+        }
+        Files.writeString(checkpointFile, "{\"filename\": \"planos/sa");
+
+        assertThat(store.find(FILE, "hash-1")).isEmpty();
+        assertThat(Files.exists(checkpointFile)).isFalse();
+    }
+
+    @Test
+    void writesAreAtomicAndLeaveNoTemporaryFiles() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.saveDownload(FILE, new ByteArrayInputStream("primeira".getBytes(StandardCharsets.UTF_8)));
+        store.saveDownload(FILE, new ByteArrayInputStream("segunda".getBytes(StandardCharsets.UTF_8)));
+        store.advance(FILE, "v1", "hash-1", Stage.DOWNLOADED, 0);
+
+        assertThat(Files.readString(store.downloadedFile(FILE))).isEqualTo("segunda");
+        assertThat(filesInDirectory()).noneMatch(name -> name.endsWith(".tmp")).hasSize(2);
+    }
+
+    @Test
+    void failedWriteKeepsThePreviousArtifact() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.saveDownload(FILE, new ByteArrayInputStream("completo".getBytes(StandardCharsets.UTF_8)));
+
+        try {
+            store.saveDownload(FILE, new InputStream() {
+                private int remaining = 4;
+
+                @Override
+                public int read() throws IOException {
+                    if (remaining-- == 0) {
+                        throw new IOException("conexão perdida");
+                    }
+                    return 'x';
+                }
+            });
+        } catch (IOException expected) {
+            // o download interrompido não pode substituir o arquivo anterior
+        }
+
+        assertThat(Files.readString(store.downloadedFile(FILE))).isEqualTo("completo");
+        assertThat(filesInDirectory()).noneMatch(name -> name.endsWith(".tmp"));
+    }
+
+    @Test
+    void segmentsRoundTripWithMetadata() throws IOException {
+        IndexingCheckpointStore store = store();
+        List<TextSegment> segments = List.of(
+                TextSegment.from("Carência de 30 dias.", new Metadata().put("plan", "ouro").put("page", 2)),
+                TextSegment.from("Sem atributos."));
+
+        store.saveSegments(FILE, segments);
+        List<TextSegment> loaded = store.loadSegments(FILE);
+
+        assertThat(loaded).extracting(TextSegment::text).containsExactly("Carência de 30 dias.", "Sem atributos.");
+        assertThat(loaded.get(0).metadata().getString("plan")).isEqualTo("ouro");
+        assertThat(loaded.get(0).metadata().getInteger("page")).isEqualTo(2);
+        assertThat(loaded.get(1).metadata().toMap()).isEmpty();
+    }
+
+    @Test
+    void textOnlySegmentsAreRejected() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.saveSegments(FILE, List.of(TextSegment.from("texto")));
+        Path segmentsFile;
+        try (var files = Files.list(directory)) {
+            segmentsFile = files.filter(f -> f.toString().endsWith(".segments.json")).findFirst().orElseThrow();
+        }
+        // Formato antigo: apenas o texto, sem os atributos usados nos filtros
+        Files.writeString(segmentsFile, "[\"texto\"]");
+
+        assertThatThrownBy(() -> store.loadSegments(FILE)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void embeddingsRoundTripInBinaryFormat() throws IOException {
+        IndexingCheckpointStore store = store();
+        List<Embedding> embeddings = List.of(
+                Embedding.from(new float[] {0.1f, -2.5f, Float.MIN_VALUE}),
+                Embedding.from(new float[] {1f, 0f, 3.75f}));
+
+        store.saveEmbeddings(FILE, embeddings);
+        List<Embedding> loaded = store.loadEmbeddings(FILE);
+
+        assertThat(loaded).hasSize(2);
+        assertThat(loaded.get(0).vector()).containsExactly(0.1f, -2.5f, Float.MIN_VALUE);
+        assertThat(loaded.get(1).vector()).containsExactly(1f, 0f, 3.75f);
+
+        store.saveEmbeddings("vazio.pdf", List.of());
+        assertThat(store.loadEmbeddings("vazio.pdf")).isEmpty();
+    }
+
+    @Test
+    void clearRemovesCheckpointAndArtifacts() throws IOException {
+        IndexingCheckpointStore store = store();
+        store.saveDownload(FILE, new ByteArrayInputStream("pdf".getBytes(StandardCharsets.UTF_8)));
+        store.saveSegments(FILE, List.of(TextSegment.from("texto")));
+        store.saveEmbeddings(FILE, List.of(Embedding.from(new float[] {1f})));
+        store.advance(FILE, "v1", "hash-1", Stage.UPLOADED, 1);
+
+        store.clear(FILE);
+
+        assertThat(filesInDirectory()).isEmpty();
+        assertThat(store.findAll()).isEmpty();
+    }
+
+    @Test
+    void disabledStoreKeepsNoCheckpoints() throws IOException {
+        IndexingCheckpointStore store = new IndexingCheckpointStore(false, directory.toString());
+
+        store.advance(FILE, "v1", "hash-1", Stage.PARSED, 1);
+
+        assertThat(store.find(FILE, "hash-1")).isEmpty();
+        assertThat(store.findAll()).isEmpty();
+        assertThat(filesInDirectory()).isEmpty();
+    }
+}
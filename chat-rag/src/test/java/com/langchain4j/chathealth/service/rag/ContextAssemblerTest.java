@@ -0,0 +1,123 @@
+package com.langchain4j.chathealth.service.rag;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import org.junit.jupiter.api.Test;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextAssemblerTest {
+
+    private static ContextAssembler assembler(int maxTokens) {
+        return new ContextAssembler(true, maxTokens, 4.0, 0.85, 100);
+    }
+
+    private static Content chunk(String source, int chunkIndex, String text, double score) {
+        Metadata metadata = new Metadata()
+                .put(DocumentAttributes.SOURCE, source)
+                .put(DocumentAttributes.CHUNK_INDEX, chunkIndex);
+        return Content.from(TextSegment.from(text, metadata), Map.of(ContentMetadata.SCORE, score));
+    }
+
+    private static Content unpositioned(String text, double score) {
+        return Content.from(TextSegment.from(text), Map.of(ContentMetadata.SCORE, score));
+    }
+
+    @Test
+    void mergesAdjacentChunksWithoutRepeatingTheOverlap() {
+        ContextAssembler.AssembledContext context = assembler(1500).assemble(List.of(
+                chunk("manual.pdf", 1, "O plano cobre consultas e exames.", 0.80),
+                chunk("manual.pdf", 0, "A carência é de 30 dias. O plano cobre", 0.90)));
+
+        assertThat(context.text()).isEqualTo("A carência é de 30 dias. O plano cobre consultas e exames.");
+        assertThat(context.inputSegments()).isEqualTo(2);
+        assertThat(context.passages()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsNonAdjacentChunksApart() {
+        ContextAssembler.AssembledContext context = assembler(1500).assemble(List.of(
+                chunk("manual.pdf", 0, "A carência é de 30 dias.", 0.90),
+                chunk("manual.pdf", 2, "O reembolso sai em 10 dias úteis.", 0.80)));
+
+        assertThat(context.passages()).isEqualTo(2);
+        assertThat(context.text()).isEqualTo("A carência é de 30 dias.\n\nO reembolso sai em 10 dias úteis.");
+    }
+
+    @Test
+    void sameChunkRetrievedTwiceIsKeptOnce() {
+        ContextAssembler.AssembledContext context = assembler(1500).assemble(List.of(
+                chunk("manual.pdf", 3, "A carência é de 30 dias.", 0.80),
+                chunk("manual.pdf", 3, "A carência é de 30 dias.", 0.90)));
+
+        assertThat(context.passages()).isEqualTo(1);
+        assertThat(context.text()).isEqualTo("A carência é de 30 dias.");
+    }
+
+    @Test
+    void dropsNearDuplicatesKeepingTheBestScored() {
+        ContextAssembler.AssembledContext context = assembler(1500).assemble(List.of(
+                chunk("antigo.pdf", 0, "O reembolso é feito em até 30 dias.", 0.70),
+                chunk("novo.pdf", 0, "O reembolso é feito em até 30 dias!", 0.90),
+                chunk("novo.pdf", 5, "A central atende 24 horas.", 0.60)));
+
+        assertThat(context.passages()).isEqualTo(2);
+        assertThat(context.text()).isEqualTo("O reembolso é feito em até 30 dias!\n\nA central atende 24 horas.");
+    }
+
+    @Test
+    void fillsTheTokenBudgetByScore() {
+        // 5 tokens por trecho e 1 pelo separador: cabem os dois melhores em 12 tokens
+        ContextAssembler.AssembledContext context = assembler(12).assemble(List.of(
+                chunk("a.pdf", 0, "um dois tres quatro", 0.70),
+                chunk("b.pdf", 0, "cinco seis sete oito", 0.90),
+                chunk("c.pdf", 0, "nove dez onze doze x", 0.80)));
+
+        assertThat(context.passages()).isEqualTo(2);
+        assertThat(context.text()).isEqualTo("cinco seis sete oito\n\nnove dez onze doze x");
+        assertThat(context.estimatedTokens()).isLessThanOrEqualTo(12);
+        assertThat(context.inputEstimatedTokens()).isGreaterThan(context.estimatedTokens());
+    }
+
+    @Test
+    void truncatesTheBestPassageWhenItAloneExceedsTheBudget() {
+        ContextAssembler.AssembledContext context = assembler(5).assemble(List.of(
+                chunk("a.pdf", 0, "um dois tres quatro cinco seis sete oito", 0.90)));
+
+        assertThat(context.passages()).isEqualTo(1);
+        assertThat(context.text()).isEqualTo("um dois tres quatro");
+    }
+
+    @Test
+    void outputOrderFollowsFileAndPositionNotScore() {
+        List<Content> contents = List.of(
+                chunk("b.pdf", 0, "cinco seis sete oito", 0.95),
+                unpositioned("nove dez onze doze", 0.99),
+                chunk("a.pdf", 4, "um dois tres quatro", 0.60),
+                chunk("a.pdf", 1, "treze catorze quinze", 0.70));
+        String expected = "treze catorze quinze\n\num dois tres quatro\n\ncinco seis sete oito\n\nnove dez onze doze";
+
+        assertThat(assembler(1500).assemble(contents).text()).isEqualTo(expected);
+        assertThat(assembler(1500).assemble(List.of(contents.get(3), contents.get(1), contents.get(0), contents.get(2))).text())
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void disabledAssemblerJoinsTheSegmentsAsRetrieved() {
+        ContextAssembler assembler = new ContextAssembler(false, 5, 4.0, 0.85, 100);
+
+        ContextAssembler.AssembledContext context = assembler.assemble(List.of(
+                chunk("b.pdf", 0, "cinco seis sete oito", 0.90),
+                chunk("b.pdf", 0, "cinco seis sete oito", 0.90)));
+
+        assertThat(context.text()).isEqualTo("cinco seis sete oito\n\ncinco seis sete oito");
+        assertThat(context.passages()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,28 @@
+package com.langchain4j.chathealth.service.rag;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlinePolicyTest {
+
+    private final DeadlinePolicy policy = new DeadlinePolicy(true, 20_000, 60_000, 0.15, 0.20, 1_000);
+
+    @Test
+    void usesTheDefaultWhenTheCallerDoesNotAskForADeadline() {
+        assertThat(policy.start(null).budgetMs()).isEqualTo(20_000);
+        assertThat(policy.start(0L).budgetMs()).isEqualTo(20_000);
+        assertThat(policy.start(-5L).budgetMs()).isEqualTo(20_000);
+    }
+
+    @Test
+    void honoursTheRequestedDeadlineUpToTheMaximum() {
+        assertThat(policy.start(5_000L).budgetMs()).isEqualTo(5_000);
+        assertThat(policy.start(120_000L).budgetMs()).isEqualTo(60_000);
+    }
+
+    @Test
+    void disabledPolicyStartsNoDeadline() {
+        assertThat(new DeadlinePolicy(false, 20_000, 60_000, 0.15, 0.20, 1_000).start(5_000L)).isNull();
+    }
+}
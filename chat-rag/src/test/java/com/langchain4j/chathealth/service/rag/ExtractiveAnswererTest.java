@@ -0,0 +1,187 @@
+package com.langchain4j.chathealth.service.rag;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import org.junit.jupiter.api.Test;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ExtractiveAnswererTest {
+
+    private static final String FAQ_TEXT = """
+            Pergunta: Qual o prazo de carência para consultas?
+            Resposta: A carência para consultas é de 30 dias.
+            Pergunta: Como solicito reembolso?
+            Resposta: Envie o recibo pelo aplicativo.
+            Pergunta: Qual o telefone""";
+    private static final String QUESTION = "Qual é o prazo de carência das consultas?";
+    private static final String CARENCIA = "A carência para consultas é de 30 dias.";
+
+    private final ExtractiveAnswerer answerer = answerer(true);
+
+    private static ExtractiveAnswerer answerer(boolean enabled) {
+        return new ExtractiveAnswerer(enabled, 0.92, 0.05, 0.5, List.of("FAQ"), List.of("curadoria/"));
+    }
+
+    private static Content content(String source, Integer chunkIndex, String documentType, String text, double score) {
+        Metadata metadata = new Metadata().put(DocumentAttributes.SOURCE, source);
+        if (chunkIndex != null) {
+            metadata.put(DocumentAttributes.CHUNK_INDEX, chunkIndex);
+        }
+        if (documentType != null) {
+            metadata.put("document_type", documentType);
+        }
+        return Content.from(TextSegment.from(text, metadata), Map.of(ContentMetadata.SCORE, score));
+    }
+
+    private static Content faq(int chunkIndex, double score) {
+        return content("faq/planos.md", chunkIndex, "faq", FAQ_TEXT, score);
+    }
+
+    private static Content manual(double score) {
+        return content("manual.pdf", 0, "manual", "O manual descreve a rede credenciada.", score);
+    }
+
+    @Test
+    void answersFromTheClosestCompletePairOfACuratedClearWinner() {
+        Optional<ExtractiveAnswerer.ExtractiveAnswer> answer = answerer.answer(QUESTION, List.of(faq(0, 0.96), manual(0.80)));
+
+        assertThat(answer).isPresent();
+        assertThat(answer.get().answer()).isEqualTo(CARENCIA);
+        assertThat(answer.get().source()).isEqualTo("faq/planos.md");
+        assertThat(answer.get().confidence()).isEqualTo(0.96);
+        assertThat(answer.get().margin()).isCloseTo(0.16, within(1e-9));
+    }
+
+    @Test
+    void disabledOrEmptyRetrievalNeverAnswers() {
+        assertThat(answerer(false).answer(QUESTION, List.of(faq(0, 0.99)))).isEmpty();
+        assertThat(answerer.answer(QUESTION, List.of())).isEmpty();
+    }
+
+    @Test
+    void onlyCuratedSourcesAreAnswered() {
+        Content notCurated = content("docs/planos.md", 0, "manual", FAQ_TEXT, 0.99);
+        Content byPrefix = content("curadoria/planos.md", 0, null, FAQ_TEXT, 0.99);
+
+        assertThat(answerer.answer(QUESTION, List.of(notCurated))).isEmpty();
+        assertThat(answerer.answer(QUESTION, List.of(byPrefix))).map(ExtractiveAnswerer.ExtractiveAnswer::answer)
+                .contains(CARENCIA);
+    }
+
+    @Test
+    void belowTheMinimumScoreGoesToGeneration() {
+        assertThat(answerer.answer(QUESTION, List.of(faq(0, 0.91)))).isEmpty();
+    }
+
+    @Test
+    void marginIsMeasuredAgainstAnotherFile() {
+        assertThat(answerer.answer(QUESTION, List.of(faq(0, 0.96), manual(0.93)))).isEmpty();
+    }
+
+    @Test
+    void marginIsMeasuredAgainstAnotherQuestionOfTheSameFaq() {
+        // Chunk 2 não é vizinho do chunk 0: é outro trecho da mesma FAQ, que compete com o primeiro
+        assertThat(answerer.answer(QUESTION, List.of(faq(0, 0.96), faq(2, 0.94), manual(0.50)))).isEmpty();
+    }
+
+    @Test
+    void adjacentAndRepeatedChunksOfTheSamePassageDoNotCountForTheMargin() {
+        List<Content> contents = List.of(faq(1, 0.96), faq(1, 0.96), faq(2, 0.955), faq(0, 0.95), manual(0.80));
+
+        Optional<ExtractiveAnswerer.ExtractiveAnswer> answer = answerer.answer(QUESTION, contents);
+
+        assertThat(answer).isPresent();
+        assertThat(answer.get().margin()).isCloseTo(0.16, within(1e-9));
+    }
+
+    @Test
+    void adjacencyRequiresTheSameFile() {
+        Content otherFaq = content("faq/outra.md", 1, "faq", FAQ_TEXT, 0.95);
+
+        assertThat(answerer.answer(QUESTION, List.of(faq(0, 0.96), otherFaq))).isEmpty();
+    }
+
+    @Test
+    void preGeneratedAnswerAttributeWins() {
+        Metadata metadata = new Metadata()
+                .put(DocumentAttributes.SOURCE, "faq/planos.md")
+                .put("document_type", "faq")
+                .put(ExtractiveAnswerer.ANSWER, "  Resposta revisada.  ");
+        Content withAnswer = Content.from(TextSegment.from(FAQ_TEXT, metadata), Map.of(ContentMetadata.SCORE, 0.97));
+
+        assertThat(answerer.answer("pergunta sem relação", List.of(withAnswer)))
+                .map(ExtractiveAnswerer.ExtractiveAnswer::answer).contains("Resposta revisada.");
+    }
+
+    @Test
+    void unrelatedQuestionGoesToGeneration() {
+        assertThat(answerer.answer("Posso levar acompanhante na internação?", List.of(faq(0, 0.97)))).isEmpty();
+    }
+
+    @Test
+    void equallyCloseQuestionsAreAmbiguous() {
+        String text = """
+                Pergunta: Qual o horário?
+                Resposta: Das 8h às 18h.
+                Pergunta: Qual o endereço?
+                Resposta: Rua A, 100.
+                Pergunta: fim""";
+        Content ambiguous = content("faq/unidade.md", 0, "faq", text, 0.97);
+
+        assertThat(answerer.answer("Qual o telefone?", List.of(ambiguous))).isEmpty();
+    }
+
+    @Test
+    void segmentWithoutACompletePairGoesToGeneration() {
+        String truncated = """
+                Pergunta: Qual o prazo de carência para consultas?
+                Resposta: A carência para consultas é de""";
+
+        assertThat(answerer.answer(QUESTION, List.of(content("faq/planos.md", 0, "faq", truncated, 0.97)))).isEmpty();
+    }
+
+    @Test
+    void pairsKeepOnlyAnswersEnclosedByQuestions() {
+        String text = """
+                Resposta: cauda do par anterior.
+                Pergunta: Primeira?
+                Resposta: Primeira resposta.
+                  pergunta : Segunda?
+                RESPOSTA: Segunda resposta,
+                em duas linhas.
+                Pergunta: Terceira?
+                Resposta: pode ter sido cortada""";
+
+        assertThat(ExtractiveAnswerer.pairs(text)).containsExactly(
+                new ExtractiveAnswerer.QaPair("Primeira?", "Primeira resposta."),
+                new ExtractiveAnswerer.QaPair("Segunda?", "Segunda resposta,\nem duas linhas."));
+    }
+
+    @Test
+    void labelsMustStartALineAndBeSpelledOut() {
+        String abbreviated = """
+                P: Qual o prazo?
+                R: 30 dias.
+                P: Outra?""";
+        String inline = "Pergunta: Qual o prazo? Resposta: 30 dias. Pergunta: Outra?";
+        String labelInsideAnswer = """
+                Pergunta: Qual o prazo?
+                Resposta: 30 dias. Veja a Pergunta: seguinte.
+                Pergunta: Outra?""";
+
+        assertThat(ExtractiveAnswerer.pairs(abbreviated)).isEmpty();
+        assertThat(ExtractiveAnswerer.pairs(inline)).isEmpty();
+        assertThat(ExtractiveAnswerer.pairs(labelInsideAnswer))
+                .containsExactly(new ExtractiveAnswerer.QaPair("Qual o prazo?", "30 dias. Veja a Pergunta: seguinte."));
+    }
+}
@@ -0,0 +1,95 @@
+package com.langchain4j.chathealth.service.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuestionComplexityClassifierTest {
+
+    private static QuestionComplexityClassifier classifier(boolean enabled) {
+        return new QuestionComplexityClassifier(enabled, 120, 20, 0.85, 0.03,
+                List.of("telefone", "horário", "onde"),
+                List.of("por que", "explique", "compare", "diferença"));
+    }
+
+    private static List<Content> scored(double... scores) {
+        return Arrays.stream(scores)
+                .mapToObj(score -> Content.from(TextSegment.from("trecho"), Map.of(ContentMetadata.SCORE, score)))
+                .toList();
+    }
+
+    private static QuestionComplexityClassifier.Classification classify(String question, double... scores) {
+        return classifier(true).classify(question, scored(scores));
+    }
+
+    @Test
+    void disabledRoutingAlwaysUsesTheStandardTier() {
+        QuestionComplexityClassifier.Classification classification =
+                classifier(false).classify("Qual o telefone?", scored(0.99, 0.5));
+
+        assertThat(classification.tier()).isEqualTo(ModelTier.STANDARD);
+        assertThat(classification.reason()).isEqualTo("routing-disabled");
+    }
+
+    @Test
+    void shortQuestionWithAClearWinnerGoesToTheFastTier() {
+        QuestionComplexityClassifier.Classification classification = classify("Qual a carência da consulta?", 0.92, 0.80);
+
+        assertThat(classification.tier()).isEqualTo(ModelTier.FAST);
+        assertThat(classification.reason()).isEqualTo("short-clear-match");
+    }
+
+    @Test
+    void complexKeywordsMatchIgnoringAccentsAndCase() {
+        assertThat(classify("Qual a DIFERENCA entre os planos?", 0.95, 0.5).reason()).isEqualTo("complex-keyword");
+        assertThat(classify("Por quê o reembolso foi negado?", 0.95, 0.5).reason()).isEqualTo("complex-keyword");
+    }
+
+    @Test
+    void keywordsMatchWholeWordsOnly() {
+        // "ondema" contém "onde", mas não é a palavra-chave
+        assertThat(classify("Qual o código ondema?", 0.95, 0.5).reason()).isEqualTo("short-clear-match");
+    }
+
+    @Test
+    void longQuestionsUseTheStandardTier() {
+        String manyWords = "sim ".repeat(21);
+        String manyChars = "a".repeat(121);
+
+        assertThat(classify(manyWords, 0.95, 0.5).reason()).isEqualTo("long-question");
+        assertThat(classify(manyChars, 0.95, 0.5).reason()).isEqualTo("long-question");
+    }
+
+    @Test
+    void lowTopScoreUsesTheStandardTier() {
+        assertThat(classify("Qual a carência?", 0.84, 0.5).reason()).isEqualTo("low-top-score");
+        assertThat(classify("Qual a carência?").reason()).isEqualTo("low-top-score");
+    }
+
+    @Test
+    void flatScoresUseTheStandardTier() {
+        QuestionComplexityClassifier.Classification classification = classify("Qual a carência?", 0.90, 0.88);
+
+        assertThat(classification.tier()).isEqualTo(ModelTier.STANDARD);
+        assertThat(classification.reason()).isEqualTo("flat-score-spread");
+    }
+
+    @Test
+    void lookupQuestionsTolerateHalfTheSpread() {
+        // Spread de 0.02: abaixo do limiar normal (0.03), acima do limiar de consulta direta (0.015)
+        assertThat(classify("Qual o telefone da central?", 0.90, 0.88).reason()).isEqualTo("lookup");
+        assertThat(classify("Qual o telefone da central?", 0.90, 0.89).reason()).isEqualTo("flat-score-spread");
+    }
+
+    @Test
+    void singleResultCountsAsAClearWinner() {
+        assertThat(classify("Onde fica a unidade?", 0.90).tier()).isEqualTo(ModelTier.FAST);
+    }
+}
@@ -0,0 +1,38 @@
+package com.langchain4j.chathealth.service.rag;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlineTest {
+
+    @Test
+    void stageReceivesItsShareOfTheTotalBudget() {
+        RequestDeadline deadline = RequestDeadline.after(10_000);
+
+        assertThat(deadline.budgetMs()).isEqualTo(10_000);
+        assertThat(deadline.stageBudgetMs(0.15)).isEqualTo(1_500);
+        assertThat(deadline.stageBudgetMs(0.20)).isEqualTo(2_000);
+        assertThat(deadline.isExpired()).isFalse();
+    }
+
+    @Test
+    void stageBudgetNeverExceedsWhatRemains() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(300);
+        Thread.sleep(200);
+
+        assertThat(deadline.remainingMs()).isLessThanOrEqualTo(100);
+        assertThat(deadline.stageBudgetMs(1.0)).isEqualTo(deadline.remainingMs());
+        assertThat(deadline.stageBudgetMs(0.1)).isLessThanOrEqualTo(30);
+    }
+
+    @Test
+    void expiredDeadlineHasNothingLeft() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(20);
+        Thread.sleep(50);
+
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.remainingMs()).isZero();
+        assertThat(deadline.stageBudgetMs(0.5)).isZero();
+    }
+}
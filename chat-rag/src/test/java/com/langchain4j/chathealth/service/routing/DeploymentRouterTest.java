@@ -0,0 +1,211 @@
+package com.langchain4j.chathealth.service.routing;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeploymentRouterTest {
+
+    private static final long HEDGE_DELAY_MS = 100;
+    private static final long COOLDOWN_MS = 60_000;
+
+    // Peso desprezível: o sorteio ponderado escolhe o outro deployment como primário
+    private static final double PRIMARY = 1.0;
+    private static final double SECONDARY = 1e-9;
+
+    /**
+     * ChatModel que responde com o próprio nome, opcionalmente após um atraso ou com erro.
+     */
+    private static class StubChatModel implements ChatModel {
+
+        private final String name;
+        private final long delayMs;
+        private final RuntimeException error;
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch cancelled = new CountDownLatch(1);
+
+        StubChatModel(String name, long delayMs, RuntimeException error) {
+            this.name = name;
+            this.delayMs = delayMs;
+            this.error = error;
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            calls.incrementAndGet();
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    cancelled.countDown();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("chamada cancelada", e);
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            return ChatResponse.builder().aiMessage(AiMessage.from(name)).build();
+        }
+    }
+
+    private static DeploymentRouter.Deployment<ChatModel> deployment(String name, ChatModel model, double weight) {
+        return new DeploymentRouter.Deployment<>(name, model, weight, new DeploymentStats(0, 200));
+    }
+
+    private static RoutingChatModel routing(boolean hedge, List<DeploymentRouter.Deployment<ChatModel>> deployments) {
+        // minSamples alto: o atraso do hedge fica fixo no inicial durante o teste
+        DeploymentRouter.HedgePolicy policy = new DeploymentRouter.HedgePolicy(
+                hedge, 0.95, HEDGE_DELAY_MS, HEDGE_DELAY_MS, 1_000, COOLDOWN_MS);
+        return new RoutingChatModel(new DeploymentRouter<>("chat", deployments, policy));
+    }
+
+    private static String ask(ChatModel model) {
+        return model.chat(ChatRequest.builder().messages(UserMessage.from("Qual a carência?")).build()).aiMessage().text();
+    }
+
+    @Test
+    void failsOverToTheNextDeploymentOnError() {
+        StubChatModel broken = new StubChatModel("a", 0, new RuntimeException("500 Internal Server Error"));
+        StubChatModel healthy = new StubChatModel("b", 0, null);
+        var a = deployment("a", broken, PRIMARY);
+        var b = deployment("b", healthy, SECONDARY);
+
+        assertThat(ask(routing(false, List.of(a, b)))).isEqualTo("b");
+
+        assertThat(a.stats().snapshot()).containsEntry("errors", 1L).containsEntry("throttled", 0L);
+        assertThat(a.stats().isCoolingDown()).isFalse();
+        assertThat(b.stats().samples()).isEqualTo(1);
+    }
+
+    @Test
+    void failsWithTheLastErrorWhenEveryDeploymentFails() {
+        var a = deployment("a", new StubChatModel("a", 0, new RuntimeException("erro em a")), PRIMARY);
+        var b = deployment("b", new StubChatModel("b", 0, new RuntimeException("erro em b")), SECONDARY);
+
+        assertThatThrownBy(() -> ask(routing(false, List.of(a, b)))).hasMessage("erro em b");
+    }
+
+    @Test
+    void skipsAThrottledDeploymentDuringItsCooldown() {
+        StubChatModel throttled = new StubChatModel("a", 0, new RuntimeException("Status code 429: Too Many Requests"));
+        StubChatModel healthy = new StubChatModel("b", 0, null);
+        var a = deployment("a", throttled, PRIMARY);
+        var b = deployment("b", healthy, SECONDARY);
+        RoutingChatModel model = routing(false, List.of(a, b));
+
+        assertThat(ask(model)).isEqualTo("b");
+        assertThat(a.stats().isCoolingDown()).isTrue();
+
+        // Em cooldown, o deployment vai para o fim da fila mesmo com o maior peso
+        assertThat(ask(model)).isEqualTo("b");
+        assertThat(ask(model)).isEqualTo("b");
+        assertThat(throttled.calls).hasValue(1);
+        assertThat(healthy.calls).hasValue(3);
+        assertThat(a.stats().snapshot()).containsEntry("throttled", 1L);
+    }
+
+    @Test
+    void hedgeFiresAfterTheDelayAndCancelsTheLoser() throws InterruptedException {
+        StubChatModel slow = new StubChatModel("a", 10_000, null);
+        StubChatModel fast = new StubChatModel("b", 0, null);
+        var a = deployment("a", slow, PRIMARY);
+        var b = deployment("b", fast, SECONDARY);
+
+        long start = System.nanoTime();
+        String answer = ask(routing(true, List.of(a, b)));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(answer).isEqualTo("b");
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(HEDGE_DELAY_MS).isLessThan(5_000);
+        assertThat(slow.cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(a.stats().snapshot())
+                .containsEntry("hedgesTriggered", 1L)
+                .containsEntry("races", 1L)
+                .containsEntry("wins", 0L);
+        assertThat(b.stats().snapshot())
+                .containsEntry("races", 1L)
+                .containsEntry("wins", 1L);
+        // O perdedor cancelado não entra na janela de latência: só o vencedor tem amostra
+        assertThat(a.stats().samples()).isZero();
+        assertThat(b.stats().samples()).isEqualTo(1);
+    }
+
+    @Test
+    void noHedgeWhenThePrimaryAnswersWithinTheDelay() {
+        StubChatModel primary = new StubChatModel("a", 0, null);
+        StubChatModel secondary = new StubChatModel("b", 0, null);
+        var a = deployment("a", primary, PRIMARY);
+        var b = deployment("b", secondary, SECONDARY);
+
+        assertThat(ask(routing(true, List.of(a, b)))).isEqualTo("a");
+
+        assertThat(secondary.calls).hasValue(0);
+        assertThat(a.stats().snapshot()).containsEntry("hedgesTriggered", 0L).containsEntry("races", 0L);
+        assertThat(a.stats().samples()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptedHedgedCallCancelsEverythingAndLeavesStatsUntouched() throws InterruptedException {
+        StubChatModel slowA = new StubChatModel("a", 10_000, null);
+        StubChatModel slowB = new StubChatModel("b", 10_000, null);
+        var a = deployment("a", slowA, PRIMARY);
+        var b = deployment("b", slowB, SECONDARY);
+        RoutingChatModel model = routing(true, List.of(a, b));
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        // Simula o prazo da requisição: a thread que chama o modelo é interrompida depois do hedge
+        Thread caller = new Thread(() -> {
+            try {
+                ask(model);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        caller.start();
+        Thread.sleep(HEDGE_DELAY_MS * 3);
+        caller.interrupt();
+        caller.join(5_000);
+
+        assertThat(thrown.get()).hasMessageContaining("interrompida");
+        assertThat(slowA.cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slowB.cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        for (var deployment : List.of(a, b)) {
+            assertThat(deployment.stats().snapshot())
+                    .containsEntry("errors", 0L)
+                    .containsEntry("races", 0L)
+                    .containsEntry("wins", 0L);
+            assertThat(deployment.stats().samples()).isZero();
+        }
+    }
+
+    @Test
+    void interruptionTranslatedBySdkDoesNotFailOver() {
+        // SDKs que convertem a interrupção em InterruptedIOException limpam a flag da thread
+        RuntimeException interrupted = new RuntimeException("timeout", new InterruptedIOException("interrupted"));
+        StubChatModel primary = new StubChatModel("a", 0, interrupted);
+        StubChatModel secondary = new StubChatModel("b", 0, null);
+        var a = deployment("a", primary, PRIMARY);
+        var b = deployment("b", secondary, SECONDARY);
+
+        assertThatThrownBy(() -> ask(routing(false, List.of(a, b)))).isSameAs(interrupted);
+
+        assertThat(secondary.calls).hasValue(0);
+        assertThat(a.stats().snapshot()).containsEntry("errors", 0L).containsEntry("throttled", 0L);
+        assertThat(a.stats().isCoolingDown()).isFalse();
+    }
+}
@@ -0,0 +1,85 @@
+package com.langchain4j.chathealth.service.search;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AliasedEmbeddingStoreTest {
+
+    private final IndexAliasService indexAliasService = mock(IndexAliasService.class);
+    private final Map<String, EmbeddingStore<TextSegment>> physicalStores = new HashMap<>();
+    private final List<String> created = new ArrayList<>();
+
+    private AliasedEmbeddingStore store() {
+        return new AliasedEmbeddingStore("docs", indexAliasService, physicalIndex -> {
+            created.add(physicalIndex);
+            return physicalStores.computeIfAbsent(physicalIndex, name -> new InMemoryEmbeddingStore<>());
+        });
+    }
+
+    private static List<String> search(EmbeddingStore<TextSegment> store) {
+        return store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                        .maxResults(5)
+                        .build())
+                .matches().stream().map(EmbeddingMatch::embedded).map(TextSegment::text).toList();
+    }
+
+    @Test
+    void followsTheAliasOnEveryCall() {
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v1");
+        AliasedEmbeddingStore store = store();
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("versão 1"));
+
+        assertThat(search(store)).containsExactly("versão 1");
+
+        // Após a troca do ponteiro, leituras e escritas vão para o novo índice sem recriar o store lógico
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v2");
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("versão 2"));
+
+        assertThat(search(store)).containsExactly("versão 2");
+        assertThat(search(physicalStores.get("docs-v1"))).containsExactly("versão 1");
+    }
+
+    @Test
+    void createsOneStorePerPhysicalIndex() {
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v1");
+        AliasedEmbeddingStore store = store();
+
+        search(store);
+        search(store);
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v2");
+        search(store);
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v1");
+        search(store);
+
+        assertThat(created).containsExactly("docs-v1", "docs-v2");
+    }
+
+    @Test
+    void removalsTargetTheCurrentIndex() {
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v1");
+        AliasedEmbeddingStore store = store();
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("antigo"));
+        when(indexAliasService.resolve("docs")).thenReturn("docs-v2");
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("novo"));
+
+        store.removeAll();
+
+        assertThat(search(store)).isEmpty();
+        assertThat(search(physicalStores.get("docs-v1"))).containsExactly("antigo");
+    }
+}
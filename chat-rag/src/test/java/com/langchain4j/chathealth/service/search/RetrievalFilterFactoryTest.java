@@ -0,0 +1,83 @@
+package com.langchain4j.chathealth.service.search;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetrievalFilterFactoryTest {
+
+    private final RetrievalFilterFactory factory = new RetrievalFilterFactory(List.of("tenant", " plan ", "documentType", "page"));
+
+    private static Metadata attributes(String... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return Metadata.from(map);
+    }
+
+    @Test
+    void emptyOrMissingContextDoesNotFilter() {
+        assertThat(factory.fromContext(null)).isNull();
+        assertThat(factory.fromContext(Map.of())).isNull();
+    }
+
+    @Test
+    void keysOutsideTheAllowListAreIgnored() {
+        assertThat(factory.fromContext(Map.of("userId", "42", "channel", "web"))).isNull();
+    }
+
+    @Test
+    void simpleValueBecomesEqualityOnItsStringForm() {
+        Filter filter = factory.fromContext(Map.of("page", 3));
+
+        assertThat(filter.test(attributes("page", "3"))).isTrue();
+        assertThat(filter.test(attributes("page", "4"))).isFalse();
+    }
+
+    @Test
+    void camelCaseContextKeysMatchSnakeCaseAttributes() {
+        Filter filter = factory.fromContext(Map.of("documentType", "faq"));
+
+        assertThat(filter.test(attributes("document_type", "faq"))).isTrue();
+        assertThat(filter.test(attributes("document_type", "manual"))).isFalse();
+    }
+
+    @Test
+    void collectionBecomesInAndSkipsNulls() {
+        List<Object> plans = new java.util.ArrayList<>(List.of("gold", "silver"));
+        plans.add(null);
+        Filter filter = factory.fromContext(Map.of("plan", plans));
+
+        assertThat(filter.test(attributes("plan", "silver"))).isTrue();
+        assertThat(filter.test(attributes("plan", "bronze"))).isFalse();
+    }
+
+    @Test
+    void blankValuesAndEmptyCollectionsAreIgnored() {
+        assertThat(factory.fromContext(Map.of("tenant", " ", "plan", List.of()))).isNull();
+    }
+
+    @Test
+    void fieldsAreCombinedWithAnd() {
+        Filter filter = factory.fromContext(Map.of("tenant", "acme", "plan", List.of("gold")));
+
+        assertThat(filter.test(attributes("tenant", "acme", "plan", "gold"))).isTrue();
+        assertThat(filter.test(attributes("tenant", "acme", "plan", "silver"))).isFalse();
+        assertThat(filter.test(attributes("tenant", "other", "plan", "gold"))).isFalse();
+    }
+
+    @Test
+    void convertsCamelCaseToSnakeCase() {
+        assertThat(RetrievalFilterFactory.toSnakeCase("documentType")).isEqualTo("document_type");
+        assertThat(RetrievalFilterFactory.toSnakeCase("page2Number")).isEqualTo("page2_number");
+        assertThat(RetrievalFilterFactory.toSnakeCase("tenant")).isEqualTo("tenant");
+        assertThat(RetrievalFilterFactory.toSnakeCase("document_type")).isEqualTo("document_type");
+    }
+}
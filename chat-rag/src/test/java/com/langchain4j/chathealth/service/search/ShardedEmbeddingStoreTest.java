@@ -0,0 +1,145 @@
+package com.langchain4j.chathealth.service.search;
+
+import com.azure.search.documents.indexes.SearchIndexClient;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.langchain4j.chathealth.service.indexer.DocumentAttributes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedEmbeddingStoreTest {
+
+    private static final String SHARD_0 = "idx-shard-0";
+    private static final String SHARD_1 = "idx-shard-1";
+    private static final long TIMEOUT_MS = 200;
+
+    private final ShardRouter shardRouter = new ShardRouter("idx", 2, "tenant");
+    // Sem SearchIndexClient os aliases resolvem para o próprio nome do shard
+    private final IndexAliasService indexAliasService = new IndexAliasService(
+            new StaticListableBeanFactory().getBeanProvider(SearchIndexClient.class), shardRouter, "idx", "idx-aliases", 30000);
+    private final Map<String, EmbeddingStore<TextSegment>> shardStores = new HashMap<>();
+
+    // Shard que demora mais que o timeout para responder
+    private static class SlowEmbeddingStore extends InMemoryEmbeddingStore<TextSegment> {
+
+        @Override
+        public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.search(request);
+        }
+    }
+
+    private ShardedEmbeddingStore store() {
+        return new ShardedEmbeddingStore(shardRouter, indexAliasService, shardStores::get, TIMEOUT_MS);
+    }
+
+    private static InMemoryEmbeddingStore<TextSegment> shard(EmbeddingStore<TextSegment> store, Object... textsAndVectors) {
+        InMemoryEmbeddingStore<TextSegment> inMemory = (InMemoryEmbeddingStore<TextSegment>) store;
+        for (int i = 0; i < textsAndVectors.length; i += 2) {
+            inMemory.add(Embedding.from((float[]) textsAndVectors[i + 1]), TextSegment.from((String) textsAndVectors[i]));
+        }
+        return inMemory;
+    }
+
+    private static EmbeddingSearchRequest query(int maxResults) {
+        return EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                .maxResults(maxResults)
+                .build();
+    }
+
+    private static List<String> texts(EmbeddingSearchResult<TextSegment> result) {
+        return result.matches().stream().map(EmbeddingMatch::embedded).map(TextSegment::text).toList();
+    }
+
+    @Test
+    void mergesTheTopKOfEveryShardByScore() {
+        shardStores.put(SHARD_0, shard(new InMemoryEmbeddingStore<>(), "a", new float[] {1, 0}, "c", new float[] {0, 1}));
+        shardStores.put(SHARD_1, shard(new InMemoryEmbeddingStore<>(), "b", new float[] {1, 0.2f}, "d", new float[] {-1, 0}));
+
+        EmbeddingSearchResult<TextSegment> result = store().search(query(3));
+
+        assertThat(texts(result)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void searchesOnlyTheRequestedShards() {
+        shardStores.put(SHARD_0, shard(new InMemoryEmbeddingStore<>(), "a", new float[] {1, 0}));
+        shardStores.put(SHARD_1, shard(new InMemoryEmbeddingStore<>(), "b", new float[] {1, 0.2f}));
+
+        assertThat(texts(store().search(query(3), List.of(SHARD_1)))).containsExactly("b");
+    }
+
+    @Test
+    void dropsAShardThatMissesTheTimeout() {
+        shardStores.put(SHARD_0, shard(new InMemoryEmbeddingStore<>(), "a", new float[] {1, 0}));
+        shardStores.put(SHARD_1, shard(new SlowEmbeddingStore(), "b", new float[] {1, 0}));
+
+        long start = System.nanoTime();
+        EmbeddingSearchResult<TextSegment> result = store().search(query(3));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(texts(result)).containsExactly("a");
+        assertThat(elapsedMs).isLessThan(2_000);
+    }
+
+    @Test
+    void failsWhenNoShardResponds() {
+        shardStores.put(SHARD_0, shard(new SlowEmbeddingStore(), "a", new float[] {1, 0}));
+        shardStores.put(SHARD_1, shard(new SlowEmbeddingStore(), "b", new float[] {1, 0}));
+
+        assertThatThrownBy(() -> store().search(query(3))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void routesWritesToTheShardOfTheSourceFile() {
+        shardStores.put(SHARD_0, new InMemoryEmbeddingStore<>());
+        shardStores.put(SHARD_1, new InMemoryEmbeddingStore<>());
+        String acme = "tenant=acme/manual.pdf";
+        String other = "tenant=globex/manual.pdf";
+        assertThat(shardRouter.shardForFile(acme)).isNotEqualTo(shardRouter.shardForFile(other));
+
+        store().addAll(
+                List.of(Embedding.from(new float[] {1, 0}), Embedding.from(new float[] {0, 1}), Embedding.from(new float[] {1, 1})),
+                List.of(segment("acme-1", acme), segment("globex-1", other), segment("acme-2", acme)));
+
+        assertThat(texts(shardStores.get(shardRouter.shardForFile(acme)).search(query(10))))
+                .containsExactlyInAnyOrder("acme-1", "acme-2");
+        assertThat(texts(shardStores.get(shardRouter.shardForFile(other)).search(query(10))))
+                .containsExactly("globex-1");
+    }
+
+    @Test
+    void rejectsWritesWithoutASource() {
+        shardStores.put(SHARD_0, new InMemoryEmbeddingStore<>());
+        shardStores.put(SHARD_1, new InMemoryEmbeddingStore<>());
+        ShardedEmbeddingStore store = store();
+
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {1, 0})))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("sem origem")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TextSegment segment(String text, String source) {
+        return TextSegment.from(text, Metadata.from(DocumentAttributes.SOURCE, source));
+    }
+}
@@ -0,0 +1,108 @@
+package com.langchain4j.chathealth.service.source;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalDocumentSourceTest {
+
+    private static final long DEBOUNCE_MS = 300;
+
+    @TempDir
+    Path root;
+
+    private LocalDocumentSource source(long mapChunkBytes) {
+        return new LocalDocumentSource(root.toString(), 2, mapChunkBytes, DEBOUNCE_MS);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    @Test
+    void listDocumentsWalksSubdirectoriesAndKeepsOnlyPdfs() throws IOException {
+        write("a.pdf", "a");
+        write("planos/b.PDF", "bb");
+        write("planos/2024/c.pdf", "ccc");
+        write("planos/notas.txt", "ignorado");
+
+        List<DocumentSource.SourceFile> files = source(1024).listDocuments();
+
+        assertThat(files).extracting(DocumentSource.SourceFile::name)
+                .containsExactlyInAnyOrder("a.pdf", "planos/b.PDF", "planos/2024/c.pdf");
+        DocumentSource.SourceFile c = files.stream().filter(f -> f.name().endsWith("c.pdf")).findFirst().orElseThrow();
+        long mtime = Files.getLastModifiedTime(root.resolve("planos/2024/c.pdf")).toMillis();
+        assertThat(c.version()).isEqualTo(mtime + "-3");
+    }
+
+    @Test
+    void hashAllMatchesSha256AcrossMappedChunks() throws Exception {
+        // Tamanho que não é múltiplo do bloco, para cobrir o último bloco parcial
+        byte[] content = "0123456789abcdef".repeat(13).concat("xyz").getBytes(StandardCharsets.UTF_8);
+        Files.write(root.resolve("grande.pdf"), content);
+        write("vazio.pdf", "");
+
+        Map<String, String> hashes = source(7).hashAll(List.of("grande.pdf", "vazio.pdf"));
+
+        assertThat(hashes).containsEntry("grande.pdf", sha256(content))
+                .containsEntry("vazio.pdf", sha256(new byte[0]));
+        assertThat(source(1 << 20).hashAll(List.of("grande.pdf"))).containsEntry("grande.pdf", sha256(content));
+    }
+
+    @Test
+    void hashAllRejectsNamesOutsideTheRoot() {
+        assertThatThrownBy(() -> source(1024).hashAll(List.of("../fora.pdf")))
+                .isInstanceOf(IOException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void watchNotifiesOncePerBurstOfChanges() throws Exception {
+        Files.createDirectories(root.resolve("planos"));
+        AtomicInteger notifications = new AtomicInteger();
+        source(1024).watch(notifications::incrementAndGet);
+
+        // Rajada mais curta que o debounce: vários eventos, uma única notificação
+        for (int i = 0; i < 5; i++) {
+            write("planos/doc" + i + ".pdf", "conteudo " + i);
+            Thread.sleep(DEBOUNCE_MS / 5);
+        }
+
+        awaitAtLeast(notifications, 1);
+        Thread.sleep(DEBOUNCE_MS * 3);
+        assertThat(notifications).hasValue(1);
+
+        // Diretório criado depois do início também passa a ser monitorado
+        Files.createDirectories(root.resolve("novos"));
+        awaitAtLeast(notifications, 2);
+        Thread.sleep(DEBOUNCE_MS * 3);
+        write("novos/doc.pdf", "novo");
+        awaitAtLeast(notifications, 3);
+    }
+
+    private static void awaitAtLeast(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (counter.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(counter.get()).isGreaterThanOrEqualTo(expected);
+    }
+}